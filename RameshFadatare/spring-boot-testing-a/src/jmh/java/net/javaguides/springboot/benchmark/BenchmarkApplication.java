@@ -0,0 +1,63 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.SpringBootTestingAApplication;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+//Boots the application against a private in-memory H2 database so benchmarks need no MySQL.
+//Pass -jvmArgsAppend "-Dbenchmark.datasource.url=jdbc:mysql://... -Dbenchmark.datasource.username=... -Dbenchmark.datasource.password=..."
+//(plus -Dbenchmark.r2dbc.url=r2dbc:mysql://... for the reactive profile) to run the same benchmarks against a real database.
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    //extra arguments use the command line form (--name=value) and override application.properties and the defaults below
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... extraArgs) {
+        //JDBC and R2DBC (reactive profile) open the same in-memory database
+        String database = "benchmark-" + UUID.randomUUID();
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + System.getProperty("benchmark.datasource.url",
+                        "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE"),
+                "--spring.r2dbc.url=" + System.getProperty("benchmark.r2dbc.url",
+                        "r2dbc:h2:mem:///" + database + ";DB_CLOSE_DELAY=-1"),
+                "--spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "sa"),
+                "--spring.datasource.password=" + System.getProperty("benchmark.datasource.password", ""),
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        for (String extraArg : extraArgs) {
+            String name = extraArg.substring(0, extraArg.indexOf('=') + 1);
+            args.removeIf(arg -> arg.startsWith(name));
+            args.add(extraArg);
+        }
+        return new SpringApplicationBuilder(SpringBootTestingAApplication.class)
+                .web(webApplicationType)
+                .run(args.toArray(String[]::new));
+    }
+
+    static List<Long> seed(EmployeeRepository employeeRepository, int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            employees.add(employee("seed" + i));
+        }
+        return employeeRepository.saveAll(employees).stream().map(Employee::getId).toList();
+    }
+
+    static Employee employee(String emailPrefix) {
+        return Employee.builder()
+                .firstName("Bheem")
+                .lastName("Shekhar")
+                .email(emailPrefix + "@gmail.com")
+                .build();
+    }
+}
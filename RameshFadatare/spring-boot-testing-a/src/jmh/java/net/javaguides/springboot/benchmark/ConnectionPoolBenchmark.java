@@ -0,0 +1,67 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Default configuration (show-sql on, Hikari defaults) vs the prod profile (no SQL echo, fixed pool sized from the
+//concurrency target, driver statement caching). Both operations hit the database on every call. Embedded H2 ignores
+//the MySQL driver properties, so it shows the cost of the SQL echo and pool sizing; run against MySQL (see
+//BenchmarkApplication) for the prepared statement cache as well.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class ConnectionPoolBenchmark {
+
+    @Param({"default", "prod"})
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private List<Long> employeeIds;
+
+    private final AtomicLong emailSequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = "prod".equals(profile)
+                ? BenchmarkApplication.start(WebApplicationType.NONE, "--spring.profiles.active=prod",
+                        "--spring.jpa.show-sql=false", "--employee.datasource.concurrency-target=16")
+                : BenchmarkApplication.start(WebApplicationType.NONE, "--spring.jpa.show-sql=true");
+        employeeIds = BenchmarkApplication.seed(context.getBean(EmployeeRepository.class), 1_000);
+        employeeService = context.getBean(EmployeeService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Employee> getEmployeesPage() {
+        return employeeService.getEmployeesAfter(randomId(), 20);
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        return employeeService.saveEmployee(BenchmarkApplication.employee("pool" + emailSequence.incrementAndGet()));
+    }
+
+    private long randomId() {
+        return employeeIds.get(ThreadLocalRandom.current().nextInt(employeeIds.size()));
+    }
+}
@@ -0,0 +1,102 @@
+package net.javaguides.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.service.EmployeeStreamService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+//The whole table as a JSON array: getAllEmployees() serialized as a List against EmployeeStreamService writing from
+//the JDBC cursor. Run with -prof gc for the allocation per export; the time to the first byte written is printed
+//per trial, averaged over all invocations
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeStreamBenchmark {
+
+    @Param({"10000", "100000"})
+    public int employees;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private EmployeeStreamService employeeStreamService;
+
+    private ObjectMapper objectMapper;
+
+    private final FirstByteOutputStream listOutput = new FirstByteOutputStream();
+
+    private final FirstByteOutputStream streamOutput = new FirstByteOutputStream();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE);
+        employeeService = context.getBean(EmployeeService.class);
+        employeeStreamService = context.getBean(EmployeeStreamService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        BenchmarkApplication.seed(context.getBean(EmployeeRepository.class), employees);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nemployees=%d: first byte after %.2f ms (list), %.2f ms (stream)%n",
+                employees, listOutput.averageFirstByteMillis(), streamOutput.averageFirstByteMillis());
+        context.close();
+    }
+
+    @Benchmark
+    public long serializeList() throws IOException {
+        listOutput.start();
+        objectMapper.writeValue(listOutput, employeeService.getAllEmployees());
+        return listOutput.bytes;
+    }
+
+    @Benchmark
+    public long streamJsonArray() throws IOException {
+        streamOutput.start();
+        employeeStreamService.writeJsonArray(streamOutput);
+        return streamOutput.bytes;
+    }
+
+    //Discards what is written, remembering when the first byte of each export arrived
+    static final class FirstByteOutputStream extends OutputStream {
+
+        long bytes;
+        private long startedAt;
+        private long firstByteNanos;
+        private long exports;
+
+        void start() {
+            bytes = 0;
+            startedAt = System.nanoTime();
+            exports++;
+        }
+
+        double averageFirstByteMillis() {
+            return exports == 0 ? 0 : firstByteNanos / 1e6 / exports;
+        }
+
+        @Override
+        public void write(int b) {
+            write(null, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (bytes == 0) {
+                firstByteNanos += System.nanoTime() - startedAt;
+            }
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.event.EmployeesImportedEvent;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//EmployeeService of the default profile (JPA on H2 behind a Caffeine cache sized to hold every employee, the
+//read-heavy steady state) against the offheap profile's store, both with the search index built over all rows.
+//Run with -prof gc for allocation and GC counts; the live heap after a full GC and the GC pause time of the trial
+//are printed when it ends
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class OffHeapBenchmark {
+
+    @Param({"jpa", "offheap"})
+    public String backend;
+
+    @Param({"100000"})
+    public int employees;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private List<Long> employeeIds;
+
+    private long gcMillisAtStart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (backend.equals("offheap")) {
+            context = BenchmarkApplication.start(WebApplicationType.NONE, "--spring.profiles.active=offheap",
+                    "--employee.offheap.snapshot-file=", "--employee.offheap.expected-employees=" + employees);
+            employeeService = context.getBean(EmployeeService.class);
+            employeeIds = new ArrayList<>(employees);
+            List<Employee> chunk = new ArrayList<>();
+            for (int i = 0; i < employees; i++) {
+                chunk.add(BenchmarkApplication.employee("seed" + i));
+                if (chunk.size() == 1000 || i == employees - 1) {
+                    employeeService.saveEmployees(chunk).forEach(result -> employeeIds.add(result.id()));
+                    chunk = new ArrayList<>();
+                }
+            }
+        } else {
+            context = BenchmarkApplication.start(WebApplicationType.NONE,
+                    "--employee.cache.maximum-size=" + employees, "--employee.l2-cache.maximum-size=" + employees);
+            employeeService = context.getBean(EmployeeService.class);
+            employeeIds = BenchmarkApplication.seed(context.getBean(EmployeeRepository.class), employees);
+            //the offheap seed goes through EmployeeService and its change events; index the same rows for search here
+            context.publishEvent(new EmployeesImportedEvent(employees));
+            //every employee cached, so the lookups below never reach the database or the coalescing window
+            employeeIds.forEach(employeeService::getEmployeeById);
+        }
+        System.gc();
+        gcMillisAtStart = gcMillis();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long gcMillis = gcMillis() - gcMillisAtStart;
+        System.gc();
+        long liveHeap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        System.out.printf("%nbackend=%s: live heap %.1f MB after full GC, %d ms GC pauses during the trial%n",
+                backend, liveHeap / 1024.0 / 1024.0, gcMillis);
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeById() {
+        return employeeService.getEmployeeById(randomId());
+    }
+
+    @Benchmark
+    public List<Employee> getEmployeesAfter() {
+        return employeeService.getEmployeesAfter(randomId(), 20);
+    }
+
+    private Long randomId() {
+        return employeeIds.get(ThreadLocalRandom.current().nextInt(employeeIds.size()));
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+}
@@ -0,0 +1,56 @@
+package net.javaguides.springboot.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+//GET /api/employees pages with open-in-view on and off. With it on, the request's EntityManager keeps its connection
+//until the response, JSON included, has been written. Connection hold time is Hikari's hikaricp.connections.usage
+//timer, printed per trial next to the request latency
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class OpenInViewBenchmark {
+
+    @Param({"true", "false"})
+    public boolean openInView;
+
+    private ConfigurableApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET, "--spring.jpa.open-in-view=" + openInView);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        BenchmarkApplication.seed(context.getBean(EmployeeRepository.class), 1_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Timer usage = context.getBean(MeterRegistry.class).get("hikaricp.connections.usage").timer();
+        System.out.printf("%nopen-in-view=%s: %d connection checkouts, held %.1f us on average, %.1f us max%n",
+                openInView, usage.count(), usage.mean(TimeUnit.MICROSECONDS), usage.max(TimeUnit.MICROSECONDS));
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getEmployeesPage() throws Exception {
+        return mockMvc.perform(get("/api/employees").param("limit", "100")).andReturn();
+    }
+}
@@ -0,0 +1,80 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//Servlet (Tomcat + JPA) vs reactive (Netty + R2DBC) stack for GET /api/employees/{id} over real HTTP with 400
+//concurrent clients. Throughput and SampleTime (p99 in the JSON result) are reported per stack. The employee cache
+//is disabled so both stacks go to the database on every call. As with VirtualThreadBenchmark, run it against
+//MySQL (see BenchmarkApplication) to measure waiting on I/O; embedded H2 mostly measures CPU per request.
+//The reactive stack is only on the classpath with the reactive Maven profile: mvn -Preactive,benchmark ...
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(400)
+@Fork(1)
+public class ReactiveBenchmark {
+
+    @Param({"servlet", "reactive"})
+    public String stack;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private String employeeUri;
+
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean reactive = stack.equals("reactive");
+        context = BenchmarkApplication.start(reactive ? WebApplicationType.REACTIVE : WebApplicationType.SERVLET,
+                "--spring.profiles.active=" + (reactive ? "reactive" : "default"),
+                "--employee.cache.maximum-size=0",
+                "--spring.datasource.hikari.maximum-pool-size=20",
+                //same pool size and acquisition timeout as Hikari (30s default) so only the stacks differ. The embedded
+                //H2 R2DBC driver completes synchronously inside the pool's drain loop, which serializes every acquire,
+                //so the pool is only used against a real database
+                "--spring.r2dbc.pool.enabled=" + (System.getProperty("benchmark.r2dbc.url") != null),
+                "--spring.r2dbc.pool.initial-size=20",
+                "--spring.r2dbc.pool.max-size=20",
+                "--spring.r2dbc.pool.max-acquire-time=30s");
+        ids = BenchmarkApplication.seed(context.getBean(EmployeeRepository.class), 1_000);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        employeeUri = "http://localhost:" + port + "/api/employees/";
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        httpClient.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int getEmployeeById() throws IOException, InterruptedException {
+        Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        HttpResponse<byte[]> response = httpClient.send(HttpRequest.newBuilder(URI.create(employeeUri + id)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,236 @@
+package net.javaguides.springboot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+//Open workload model: requests start on a fixed schedule of rps arrivals per second whether or not earlier ones have
+//finished, each on its own virtual thread. Latency is measured from the scheduled start, so a server that falls behind
+//shows up as queueing time in the percentiles instead of silently lowering the request rate (coordinated omission).
+final class LoadGenerator {
+
+    private static final int SEED_CHUNK_SIZE = 1_000;
+
+    private final LoadTestOptions options;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final IdPool ids = new IdPool();
+    private final AtomicLong emailSequence = new AtomicLong();
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    LoadGenerator(LoadTestOptions options, String baseUrl) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.timeout())
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        List<Operation> weighted = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<Operation, Integer> entry : options.mix().entrySet()) {
+            if (entry.getValue() > 0) {
+                total += entry.getValue();
+                weighted.add(entry.getKey());
+                cumulative.add(total);
+            }
+        }
+        this.operations = weighted.toArray(Operation[]::new);
+        this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    //Creates the employees that GET / UPDATE / DELETE start from, through the bulk endpoint
+    void seed() throws IOException, InterruptedException {
+        for (int created = 0; created < options.seed(); created += SEED_CHUNK_SIZE) {
+            List<Map<String, String>> chunk = new ArrayList<>();
+            for (int i = created; i < Math.min(options.seed(), created + SEED_CHUNK_SIZE); i++) {
+                chunk.add(employee());
+            }
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(uri("/api/employees/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(chunk)))
+                    .timeout(options.timeout())
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Seeding failed with HTTP " + response.statusCode() + ": " + response.body());
+            }
+            for (JsonNode result : objectMapper.readTree(response.body())) {
+                if (result.hasNonNull("id")) {
+                    ids.add(result.get("id").asLong());
+                }
+            }
+        }
+    }
+
+    //Runs warmup + duration and returns the nanoseconds the measured part took until its last response
+    long run() throws InterruptedException {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.rps());
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        for (long arrival = 0; ; arrival++) {
+            long scheduled = start + arrival * intervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = nextOperation();
+            boolean measured = scheduled >= measureFrom;
+            executor.execute(() -> execute(operation, scheduled, measured));
+        }
+        executor.shutdown();
+        executor.awaitTermination(options.timeout().toNanos() * 2, TimeUnit.NANOSECONDS);
+        return Math.max(end, System.nanoTime()) - measureFrom;
+    }
+
+    Map<Operation, OperationStats> stats() {
+        return stats;
+    }
+
+    int maxInFlight() {
+        return maxInFlight.get();
+    }
+
+    private Operation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void execute(Operation operation, long scheduled, boolean measured) {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        //every employee may have been deleted; the arrival still happens, as a create
+        OptionalLong id = !operation.needsEmployee() ? OptionalLong.empty()
+                : operation == Operation.DELETE ? ids.take() : ids.random();
+        if (operation.needsEmployee() && id.isEmpty()) {
+            operation = Operation.CREATE;
+        }
+        int status;
+        try {
+            HttpResponse<String> response = httpClient.send(request(operation, id), HttpResponse.BodyHandlers.ofString());
+            status = response.statusCode();
+            if (operation == Operation.CREATE && status == 201) {
+                ids.add(objectMapper.readTree(response.body()).get("id").asLong());
+            }
+        } catch (IOException e) {
+            status = 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = 0;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        if (measured) {
+            stats.get(operation).record(status, System.nanoTime() - scheduled);
+        }
+    }
+
+    private HttpRequest request(Operation operation, OptionalLong id) throws IOException {
+        HttpRequest.Builder request = switch (operation) {
+            case CREATE -> HttpRequest.newBuilder(uri("/api/employees"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(employee())));
+            case GET -> HttpRequest.newBuilder(uri("/api/employees/" + id.getAsLong())).GET();
+            case LIST -> HttpRequest.newBuilder(uri("/api/employees?limit=" + options.pageSize())).GET();
+            case UPDATE -> HttpRequest.newBuilder(uri("/api/employees/" + id.getAsLong()))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(employee())));
+            case DELETE -> HttpRequest.newBuilder(uri("/api/employees/" + id.getAsLong())).DELETE();
+        };
+        return request.timeout(options.timeout()).build();
+    }
+
+    private Map<String, String> employee() {
+        long sequence = emailSequence.incrementAndGet();
+        Map<String, String> employee = new LinkedHashMap<>();
+        employee.put("firstName", "Load");
+        employee.put("lastName", "Test" + sequence);
+        employee.put("email", "loadtest-" + sequence + "-" + System.nanoTime() + "@example.com");
+        return employee;
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    //Latency in microseconds up to an hour with 3 significant digits; status 0 is a timeout or connection error
+    static final class OperationStats {
+
+        final Histogram latency = new ConcurrentHistogram(TimeUnit.HOURS.toMicros(1), 3);
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        final LongAdder errors = new LongAdder();
+
+        void record(int status, long nanos) {
+            latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), latency.getHighestTrackableValue()));
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+            if (status < 200 || status >= 300) {
+                errors.increment();
+            }
+        }
+    }
+
+    //Ids of employees known to exist; DELETE takes one out so no two deletes race for the same employee
+    static final class IdPool {
+
+        private final List<Long> ids = new ArrayList<>();
+
+        synchronized void add(long id) {
+            ids.add(id);
+        }
+
+        synchronized OptionalLong random() {
+            return ids.isEmpty() ? OptionalLong.empty()
+                    : OptionalLong.of(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+        }
+
+        synchronized OptionalLong take() {
+            if (ids.isEmpty()) {
+                return OptionalLong.empty();
+            }
+            int index = ThreadLocalRandom.current().nextInt(ids.size());
+            long id = ids.get(index);
+            ids.set(index, ids.get(ids.size() - 1));
+            ids.remove(ids.size() - 1);
+            return OptionalLong.of(id);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package net.javaguides.springboot.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import net.javaguides.springboot.SpringBootTestingAApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+//Constant-arrival-rate load test of the employee REST API, see the loadtest profile in pom.xml:
+//  mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--rps=500 --duration=60s --mix=get=80,list=10,create=10"
+//Without --target=http://host:port the application is started in-process on a private in-memory H2 database;
+//other --name=value arguments (e.g. --spring.profiles.active=prod, or --employee.rate-limit.enabled=true to watch it
+//shed load) are passed to it. The result is printed and written as JSON to --out (target/loadtest-result.json),
+//so runs of two releases can be compared.
+public final class LoadTest {
+
+    private static final double[] PERCENTILES = {50, 90, 95, 99, 99.9};
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext context = options.target() == null ? startApplication(options.applicationArgs()) : null;
+        try {
+            String baseUrl = context == null ? options.target()
+                    : "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadGenerator generator = new LoadGenerator(options, baseUrl);
+            generator.seed();
+            System.out.printf("Running %.0f requests/s against %s: %s warmup, %s measured%n",
+                    options.rps(), baseUrl, options.warmup(), options.duration());
+            long elapsedNanos = generator.run();
+            Map<String, Object> report = report(options, baseUrl, generator, elapsedNanos);
+            ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+            String json = objectMapper.writeValueAsString(report);
+            if (options.out().getParent() != null) {
+                Files.createDirectories(options.out().getParent());
+            }
+            Files.writeString(options.out(), json);
+            System.out.println(json);
+            System.out.println("Result written to " + options.out().toAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext startApplication(List<String> extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:loadtest-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        //an extra argument replaces the default with the same name
+        for (String extraArg : extraArgs) {
+            String name = extraArg.contains("=") ? extraArg.substring(0, extraArg.indexOf('=') + 1) : extraArg;
+            args.removeIf(arg -> arg.startsWith(name));
+            args.add(extraArg);
+        }
+        return new SpringApplicationBuilder(SpringBootTestingAApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run(args.toArray(String[]::new));
+    }
+
+    private static Map<String, Object> report(LoadTestOptions options, String baseUrl, LoadGenerator generator, long elapsedNanos) {
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        Histogram total = new Histogram(TimeUnit.HOURS.toMicros(1), 3);
+        long totalErrors = 0;
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (Map.Entry<Operation, LoadGenerator.OperationStats> entry : generator.stats().entrySet()) {
+            LoadGenerator.OperationStats stats = entry.getValue();
+            long count = stats.latency.getTotalCount();
+            if (count == 0) {
+                continue;
+            }
+            total.add(stats.latency);
+            totalErrors += stats.errors.sum();
+            Map<String, Long> statuses = new TreeMap<>();
+            stats.statuses.forEach((status, counter) -> statuses.put(status == 0 ? "error" : status.toString(), counter.sum()));
+            Map<String, Object> operation = summary(stats.latency, stats.errors.sum(), seconds);
+            operation.put("statuses", statuses);
+            operations.put(entry.getKey().key(), operation);
+        }
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("target", baseUrl);
+        config.put("targetRps", options.rps());
+        config.put("warmupSeconds", options.warmup().toMillis() / 1000.0);
+        config.put("durationSeconds", options.duration().toMillis() / 1000.0);
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        options.mix().forEach((operation, weight) -> mix.put(operation.key(), weight));
+        config.put("mix", mix);
+        config.put("seed", options.seed());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        Map<String, Object> summary = summary(total, totalErrors, seconds);
+        summary.put("maxInFlight", generator.maxInFlight());
+        report.put("total", summary);
+        report.put("operations", operations);
+        return report;
+    }
+
+    //Latencies in milliseconds, measured from the scheduled start of each request
+    private static Map<String, Object> summary(Histogram latency, long errors, double seconds) {
+        long count = latency.getTotalCount();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", count);
+        summary.put("throughput", count / seconds);
+        summary.put("errors", errors);
+        summary.put("errorRate", count == 0 ? 0.0 : errors / (double) count);
+        Map<String, Double> latencyMillis = new LinkedHashMap<>();
+        latencyMillis.put("mean", latency.getMean() / 1000.0);
+        for (double percentile : PERCENTILES) {
+            latencyMillis.put("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                    latency.getValueAtPercentile(percentile) / 1000.0);
+        }
+        latencyMillis.put("max", latency.getMaxValue() / 1000.0);
+        summary.put("latencyMillis", latencyMillis);
+        return summary;
+    }
+}
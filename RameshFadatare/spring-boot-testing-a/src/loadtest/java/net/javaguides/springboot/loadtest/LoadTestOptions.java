@@ -0,0 +1,72 @@
+package net.javaguides.springboot.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+//Command line of LoadTest; --name=value options, anything it does not know is passed on to the local application
+record LoadTestOptions(String target, double rps, Duration warmup, Duration duration, Map<Operation, Integer> mix,
+                       int seed, int pageSize, Duration timeout, Path out, List<String> applicationArgs) {
+
+    static final String DEFAULT_MIX = "create=10,get=60,list=20,update=5,delete=5";
+
+    static LoadTestOptions parse(String... args) {
+        String target = null;
+        double rps = 200;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(30);
+        String mix = DEFAULT_MIX;
+        int seed = 1_000;
+        int pageSize = 20;
+        Duration timeout = Duration.ofSeconds(5);
+        Path out = Path.of("target", "loadtest-result.json");
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            String name = separator < 0 ? arg : arg.substring(0, separator);
+            String value = separator < 0 ? "" : arg.substring(separator + 1);
+            switch (name) {
+                case "--target" -> target = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "--rps" -> rps = Double.parseDouble(value);
+                case "--warmup" -> warmup = DurationStyle.detectAndParse(value);
+                case "--duration" -> duration = DurationStyle.detectAndParse(value);
+                case "--mix" -> mix = value;
+                case "--seed" -> seed = Integer.parseInt(value);
+                case "--page-size" -> pageSize = Integer.parseInt(value);
+                case "--timeout" -> timeout = DurationStyle.detectAndParse(value);
+                case "--out" -> out = Path.of(value);
+                default -> applicationArgs.add(arg);
+            }
+        }
+        if (rps <= 0) {
+            throw new IllegalArgumentException("--rps must be positive");
+        }
+        return new LoadTestOptions(target, rps, warmup, duration, parseMix(mix), seed, pageSize, timeout, out,
+                applicationArgs);
+    }
+
+    //create=10,get=60,... - relative weights, they do not have to add up to 100
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid --mix entry '" + entry + "', expected operation=weight");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in --mix entry '" + entry + "'");
+            }
+            weights.put(Operation.of(parts[0]), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("--mix has no operation with a positive weight");
+        }
+        return weights;
+    }
+}
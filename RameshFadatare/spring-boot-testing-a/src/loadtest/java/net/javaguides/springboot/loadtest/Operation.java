@@ -0,0 +1,21 @@
+package net.javaguides.springboot.loadtest;
+
+import java.util.Locale;
+
+//Requests the load generator replays, each against the servlet EmployeeController
+enum Operation {
+    CREATE, GET, LIST, UPDATE, DELETE;
+
+    String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    static Operation of(String key) {
+        return valueOf(key.trim().toUpperCase(Locale.ROOT));
+    }
+
+    //GET, UPDATE and DELETE need an existing employee
+    boolean needsEmployee() {
+        return this == GET || this == UPDATE || this == DELETE;
+    }
+}
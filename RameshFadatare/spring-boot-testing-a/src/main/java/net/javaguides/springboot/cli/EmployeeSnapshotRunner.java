@@ -0,0 +1,63 @@
+package net.javaguides.springboot.cli;
+
+import net.javaguides.springboot.dto.SnapshotResult;
+import net.javaguides.springboot.service.EmployeeSnapshotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//Command line snapshot export / import; the application exits once the snapshot is written or loaded:
+//  java -jar app.jar --export-snapshot=employees.snapshot [--compress] --spring.main.web-application-type=none
+//  java -jar app.jar --import-snapshot=employees.snapshot --spring.main.web-application-type=none
+@Component
+@Profile("!reactive & !offheap")
+public class EmployeeSnapshotRunner implements ApplicationRunner {
+
+    static final String EXPORT_OPTION = "export-snapshot";
+    static final String IMPORT_OPTION = "import-snapshot";
+    static final String COMPRESS_OPTION = "compress";
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSnapshotRunner.class);
+
+    private EmployeeSnapshotService employeeSnapshotService;
+
+    private ConfigurableApplicationContext context;
+
+    public EmployeeSnapshotRunner(EmployeeSnapshotService employeeSnapshotService, ConfigurableApplicationContext context){
+        this.employeeSnapshotService = employeeSnapshotService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        SnapshotResult result;
+        if (args.containsOption(EXPORT_OPTION)) {
+            Path path = Path.of(args.getOptionValues(EXPORT_OPTION).get(0));
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                result = employeeSnapshotService.exportSnapshot(channel, args.containsOption(COMPRESS_OPTION));
+            }
+            log.info("Exported {} employees to {} ({} bytes) in {} ms, {} rows/s",
+                    result.rows(), path, result.bytes(), result.millis(), result.rowsPerSecond());
+        } else if (args.containsOption(IMPORT_OPTION)) {
+            Path path = Path.of(args.getOptionValues(IMPORT_OPTION).get(0));
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                result = employeeSnapshotService.importSnapshot(channel);
+            }
+            log.info("Imported {} employees from {} ({} bytes) in {} ms, {} rows/s",
+                    result.rows(), path, result.bytes(), result.millis(), result.rowsPerSecond());
+        } else {
+            return;
+        }
+        System.exit(SpringApplication.exit(context));
+    }
+}
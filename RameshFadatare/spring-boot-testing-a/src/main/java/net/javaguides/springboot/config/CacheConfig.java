@@ -0,0 +1,62 @@
+package net.javaguides.springboot.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+//The cache interceptor runs outside the transaction interceptor: a hit never opens a transaction (and with it a
+//connection), and the puts and evictions of a service call that owns its transaction happen after the commit.
+//A call joining a transaction that is already open (the write-behind flusher's batch) returns before the commit,
+//so the caches are also transaction-aware: inside a transaction, puts and evictions are deferred until it commits,
+//otherwise a concurrent GET could re-cache the old row between the eviction and the commit for the whole ttl
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String EMPLOYEES_BY_ID = "employeesById";
+
+    //Caffeine evicts with W-TinyLFU once maximum-size is reached; misses (Optional.empty) are cached as NullValue
+    //with their own, shorter ttl so repeated 404 lookups do not reach the database
+    @Bean
+    public CacheManager cacheManager(@Value("${employee.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${employee.cache.ttl:10m}") Duration ttl,
+                                     @Value("${employee.cache.negative-ttl:30s}") Duration negativeTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(EMPLOYEES_BY_ID, employeeCache(maximumSize, ttl, negativeTtl));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    private static Cache<Object, Object> employeeCache(long maximumSize, Duration ttl, Duration negativeTtl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<Object, Object>() {
+                    @Override
+                    public long expireAfterCreate(Object key, Object value, long currentTime) {
+                        return (value == NullValue.INSTANCE ? negativeTtl : ttl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package net.javaguides.springboot.config;
+
+//Meter names shared by the service and the controller, scraped from /actuator/prometheus
+public final class EmployeeMetrics {
+
+    //Timer with percentile histogram, tagged operation=save|save_bulk|get|get_batch|list|stream|stream_json|update|delete
+    public static final String OPERATIONS = "employee.operations";
+
+    //Counter of creates rejected because the email is taken, tagged operation=save|save_bulk
+    public static final String DUPLICATE_EMAILS = "employee.duplicate.emails";
+
+    //Counter of requests answered with 404, tagged operation=get|update|delete
+    public static final String NOT_FOUND = "employee.not.found";
+
+    //Gauge of writes waiting in the write-behind queue
+    public static final String WRITE_QUEUE_DEPTH = "employee.write.queue.depth";
+
+    //Timer with percentile histogram of one write-behind flush, tagged outcome=committed|retried|isolated
+    public static final String WRITE_FLUSH = "employee.write.flush";
+
+    //Counter of write-behind requests, tagged outcome=committed|failed|coalesced|rejected
+    public static final String WRITES = "employee.writes";
+
+    //Distribution of how many single lookups one coalesced findAllById query served
+    public static final String LOOKUP_BATCH_SIZE = "employee.lookup.batch.size";
+
+    //Gauge of direct memory held by the offheap profile's store, tagged kind=used|allocated
+    public static final String OFFHEAP_BYTES = "employee.offheap.bytes";
+
+    //Counter of requests answered with 429 by EmployeeRateLimitFilter, tagged class=read|write, reason=client|global|concurrency
+    public static final String RATE_LIMIT_REJECTIONS = "employee.rate.limit.rejections";
+
+    //Gauge of tokens left in the global bucket, tagged class=read|write
+    public static final String RATE_LIMIT_TOKENS = "employee.rate.limit.tokens";
+
+    //Gauge of clients with a bucket of their own, tagged class=read|write
+    public static final String RATE_LIMIT_CLIENTS = "employee.rate.limit.clients";
+
+    //Gauges of the adaptive concurrency limit and the requests currently counted against it, tagged class=read|write
+    public static final String CONCURRENCY_LIMIT = "employee.concurrency.limit";
+    public static final String CONCURRENCY_IN_FLIGHT = "employee.concurrency.in.flight";
+
+    private EmployeeMetrics() {
+    }
+}
@@ -0,0 +1,69 @@
+package net.javaguides.springboot.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import net.javaguides.springboot.model.Employee;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+//Hibernate second-level cache on Caffeine through JCache: Employee entities by id and the results of the cacheable
+//queries (findByJPQL / findByJPQLNamedParams). Regions are created here with their sizes so Hibernate fails on
+//startup if a region is missing instead of silently creating an unbounded one. Hibernate invalidates the regions
+//itself on entity writes and on the bulk update/delete statements of EmployeeRepository; writes that bypass
+//Hibernate (the reactive profile's SQL) are not seen, which is fine as that profile does not read through JPA.
+//Hit ratios: hibernate.second.level.cache.requests and hibernate.cache.query.requests, tagged result=hit|miss.
+@Configuration
+@Profile("!offheap")
+public class HibernateCacheConfig {
+
+    public static final String EMPLOYEE_QUERIES = "employeeQueries";
+
+    //Its own JCache manager per application context (tests start several in one JVM), closed with the context
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${employee.l2-cache.maximum-size:10000}") long maximumSize,
+                                              @Value("${employee.l2-cache.ttl:10m}") Duration ttl,
+                                              @Value("${employee.l2-cache.query-maximum-size:1000}") long queryMaximumSize,
+                                              @Value("${employee.l2-cache.query-ttl:5m}") Duration queryTtl) {
+        CaffeineCachingProvider provider = new CaffeineCachingProvider();
+        CacheManager cacheManager = provider.getCacheManager(URI.create("employee-l2-cache:" + UUID.randomUUID()),
+                getClass().getClassLoader());
+        cacheManager.createCache(Employee.CACHE_REGION, region(maximumSize, ttl));
+        cacheManager.createCache(EMPLOYEE_QUERIES, region(queryMaximumSize, queryTtl));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, region(queryMaximumSize, queryTtl));
+        //must outlive every cached query result, otherwise a stale result could be taken for current
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maximumSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.NANOSECONDS.convert(ttl)));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,38 @@
+package net.javaguides.springboot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+//prod profile: sizes the Hikari pool from employee.datasource.concurrency-target instead of a hand-tuned
+//maximum-pool-size. The pool is fixed (minimum-idle = maximum) so a burst never waits for connections to be opened.
+@Configuration(proxyBeanMethods = false)
+@Profile("prod")
+public class HikariPoolConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(HikariPoolConfig.class);
+
+    //Runs after spring.datasource.hikari.* is bound; the pool itself only starts on the first getConnection()
+    @Bean
+    static BeanPostProcessor hikariPoolSizer(@Value("${employee.datasource.concurrency-target:16}") int concurrencyTarget,
+                                             @Value("${employee.datasource.background-connections:4}") int backgroundConnections) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    int poolSize = Math.max(1, concurrencyTarget + backgroundConnections);
+                    dataSource.setMaximumPoolSize(poolSize);
+                    dataSource.setMinimumIdle(poolSize);
+                    log.info("Connection pool {} sized to {} connections ({} for requests, {} background)",
+                            dataSource.getPoolName(), poolSize, concurrencyTarget, backgroundConnections);
+                }
+                return bean;
+            }
+        };
+    }
+}
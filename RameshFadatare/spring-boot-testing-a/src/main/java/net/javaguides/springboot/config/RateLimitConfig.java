@@ -0,0 +1,28 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.controller.EmployeeRateLimitFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+//Rate limiting and load shedding of the employee API (employee.rate-limit.*), off unless enabled. Registered for
+///api/employees only, so actuator scrapes and health checks are never shed along with the traffic they are meant to diagnose
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "employee.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    @Bean
+    public EmployeeRateLimitFilter employeeRateLimitFilter() {
+        return new EmployeeRateLimitFilter();
+    }
+
+    @Bean
+    public FilterRegistrationBean<EmployeeRateLimitFilter> employeeRateLimitFilterRegistration(EmployeeRateLimitFilter filter) {
+        FilterRegistrationBean<EmployeeRateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/employees", "/api/employees/*");
+        return registration;
+    }
+}
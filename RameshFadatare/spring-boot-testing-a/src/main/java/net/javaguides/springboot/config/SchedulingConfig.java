@@ -0,0 +1,10 @@
+package net.javaguides.springboot.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+//Boot's TaskScheduler (spring.task.scheduling.*) runs the @Scheduled jobs
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,120 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.model.Employee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+//Brings a MySQL schema created by an earlier release up to what the entities expect. Runs before the
+//EntityManagerFactory (SchemaUpgradeConfig), so Hibernate's ddl-auto finds the schema already upgraded instead of
+//creating missing objects with defaults that clash with the existing rows. Every step is idempotent.
+//Other databases are left alone: they are only used by tests and always start empty.
+public class SchemaUpgrade implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaUpgrade.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchemaUpgrade(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if ("MySQL".equalsIgnoreCase(database)) {
+            upgrade();
+        }
+    }
+
+    void upgrade() {
+        seedEmployeeSequence();
+        uniqueEmployeeEmail();
+        autoIncrementChangeSeq();
+    }
+
+    //Employee.id used to be IDENTITY. MySQL has no sequences, Hibernate emulates employees_seq with a one row table
+    //and, when it creates that table itself, starts it at 1 - below the ids already in employees. The next value
+    //read reserves (value - allocation size, value], so it has to be at least max(id) + allocation size
+    private void seedEmployeeSequence() {
+        if (!tableExists("employees")) {
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from employees", Long.class);
+        long next = maxId + Employee.ID_ALLOCATION_SIZE;
+        jdbcTemplate.execute("create table if not exists employees_seq (next_val bigint) engine=InnoDB");
+        if (jdbcTemplate.update("update employees_seq set next_val = greatest(next_val, ?)", next) == 0) {
+            jdbcTemplate.update("insert into employees_seq (next_val) values (?)", next);
+            log.info("Created employees_seq starting at {}", next);
+        }
+    }
+
+    //The unique email index is the only guard against duplicate employees (saveEmployee answers 409 on a violation).
+    //ddl-auto only logs a constraint it cannot create, so it is added here, and startup fails while the table still
+    //holds duplicates instead of running without the guard
+    private void uniqueEmployeeEmail() {
+        if (!tableExists("employees") || hasUniqueIndexOnEmail()) {
+            return;
+        }
+        Long duplicates = jdbcTemplate.queryForObject(
+                "select count(*) from (select email from employees group by email having count(*) > 1) duplicates", Long.class);
+        if (duplicates > 0) {
+            throw new IllegalStateException(duplicates + " emails are used by more than one employee; remove the "
+                    + "duplicates so the unique constraint " + Employee.EMAIL_UNIQUE_CONSTRAINT + " can be created");
+        }
+        jdbcTemplate.execute("alter table employees add constraint " + Employee.EMAIL_UNIQUE_CONSTRAINT + " unique (email)");
+        log.info("Added unique constraint {} on employees.email", Employee.EMAIL_UNIQUE_CONSTRAINT);
+    }
+
+    //Any unique index on email alone will do, earlier releases may have created one under a generated name
+    private boolean hasUniqueIndexOnEmail() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            Map<String, List<String>> columnsByIndex = new HashMap<>();
+            try (ResultSet indexes = connection.getMetaData().getIndexInfo(connection.getCatalog(), connection.getSchema(),
+                    "employees", true, false)) {
+                while (indexes.next()) {
+                    if (indexes.getString("INDEX_NAME") != null && indexes.getString("COLUMN_NAME") != null) {
+                        columnsByIndex.computeIfAbsent(indexes.getString("INDEX_NAME"), name -> new ArrayList<>())
+                                .add(indexes.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            return columnsByIndex.containsValue(List.of("email"));
+        }));
+    }
+
+    //employee_changes.seq used to come from an emulated sequence; ddl-auto does not alter existing columns, and
+    //inserts without a seq would fail. MySQL starts the counter above the highest seq already in the table
+    private void autoIncrementChangeSeq() {
+        Boolean autoIncrement = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (ResultSet columns = connection.getMetaData().getColumns(connection.getCatalog(), connection.getSchema(),
+                    "employee_changes", "seq")) {
+                return columns.next() ? "YES".equals(columns.getString("IS_AUTOINCREMENT")) : null;
+            }
+        });
+        if (Boolean.FALSE.equals(autoIncrement)) {
+            jdbcTemplate.execute("alter table employee_changes modify seq bigint not null auto_increment");
+            log.info("Changed employee_changes.seq to auto_increment");
+        }
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), connection.getSchema(),
+                    table, new String[]{"TABLE"})) {
+                return tables.next();
+            }
+        }));
+    }
+}
@@ -0,0 +1,24 @@
+package net.javaguides.springboot.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+
+//Runs SchemaUpgrade on startup, before Hibernate builds (and with ddl-auto, updates or validates) the schema
+@Configuration(proxyBeanMethods = false)
+@Profile("!offheap")
+public class SchemaUpgradeConfig {
+
+    @Bean
+    public SchemaUpgrade schemaUpgrade(DataSource dataSource) {
+        return new SchemaUpgrade(dataSource);
+    }
+
+    @Bean
+    static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnSchemaUpgrade() {
+        return new EntityManagerFactoryDependsOnPostProcessor(SchemaUpgrade.class);
+    }
+}
@@ -0,0 +1,52 @@
+package net.javaguides.springboot.controller;
+
+//Adaptive limit on requests in flight, additive increase / multiplicative decrease on the observed latency:
+//a request slower than latencyTarget, or one that failed with a server error, cuts the limit by BACKOFF_RATIO;
+//a fast one raises it by one while at least half of the limit was in use when it finished, itself included (an idle
+//limit is not evidence of capacity, but a limit of one fully used by a lone request is).
+//When the database slows down the limit follows within a few requests, so excess requests are turned away at
+//once instead of queueing for a connection until the pool times out.
+final class AimdConcurrencyLimit {
+
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private double limit;
+    private int inFlight;
+
+    AimdConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyTargetNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    //latencyNanos < 0 releases without a sample, for requests whose duration says nothing about the backend
+    synchronized void release(long latencyNanos, boolean failed) {
+        boolean utilized = inFlight * 2 >= (int) limit;
+        inFlight--;
+        if (failed || latencyNanos > latencyTargetNanos) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+        } else if (latencyNanos >= 0 && utilized) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    synchronized int limit() {
+        return (int) limit;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+}
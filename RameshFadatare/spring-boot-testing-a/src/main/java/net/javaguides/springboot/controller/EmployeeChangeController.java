@@ -0,0 +1,174 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.service.EmployeeChangeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+//Change stream for mirrors: GET /api/employees/changes?after=<seq> sends every employee write after that offset as
+//a Server-Sent Event (id = seq) and then follows new writes. EventSource clients resume on their own through the
+//Last-Event-ID header, so a mirror downloads the table once and afterwards only deltas.
+//Every subscription polls on a virtual thread of its own: SseEmitter.send blocks while a slow client's socket buffer
+//is full, and that must hold back neither the other subscriptions nor the @Scheduled jobs.
+//A consumer that resumes below the retained log first gets a "resync" event: it has missed changes and has to reload
+//GET /api/employees, the stream then continues with the oldest change still retained.
+@RestController
+@RequestMapping("/api/employees/changes")
+@Profile("!reactive & !offheap")
+public class EmployeeChangeController implements DisposableBean {
+
+    static final int BATCH_SIZE = 500;
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeChangeController.class);
+
+    private EmployeeChangeService employeeChangeService;
+
+    private Duration pollInterval;
+
+    private Duration gapTimeout;
+
+    private Duration heartbeatInterval;
+
+    private Duration emitterTimeout;
+
+    private final ExecutorService pumps = Executors.newVirtualThreadPerTaskExecutor();
+
+    public EmployeeChangeController(EmployeeChangeService employeeChangeService,
+                                    @Value("${employee.changes.poll-interval:250ms}") Duration pollInterval,
+                                    @Value("${employee.changes.gap-timeout:5s}") Duration gapTimeout,
+                                    @Value("${employee.changes.heartbeat-interval:15s}") Duration heartbeatInterval,
+                                    @Value("${employee.changes.emitter-timeout:30m}") Duration emitterTimeout){
+        this.employeeChangeService = employeeChangeService;
+        this.pollInterval = pollInterval;
+        this.gapTimeout = gapTimeout;
+        this.heartbeatInterval = heartbeatInterval;
+        this.emitterTimeout = emitterTimeout;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(value = "after", required = false) Long after,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId){
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        Subscription subscription = new Subscription(emitter, after != null ? after : lastEventId != null ? lastEventId : 0L);
+        Future<?> pump = pumps.submit(subscription::run);
+        Runnable cancel = () -> pump.cancel(true);
+        emitter.onCompletion(cancel);
+        emitter.onTimeout(cancel);
+        emitter.onError(error -> cancel.run());
+        return emitter;
+    }
+
+    //open streams end with an error, EventSource clients reconnect to another instance with their Last-Event-ID
+    @Override
+    public void destroy() {
+        pumps.shutdownNow();
+    }
+
+    //One consumer's position in the log. Auto-increment values are drawn at insert, before commit, so a transaction
+    //that commits late shows up as a hole below rows that are already visible. Delivery stops at a hole until it is
+    //filled or has been open for gapTimeout - then it belongs to a rolled back transaction (or a very slow one, which
+    //this consumer misses)
+    final class Subscription {
+
+        private final SseEmitter emitter;
+        private long offset;
+        private long gapSince;
+        private long lastSent = System.nanoTime();
+
+        Subscription(SseEmitter emitter, long offset) {
+            this.emitter = emitter;
+            this.offset = offset;
+        }
+
+        //until the stream ends: the completion callbacks interrupt this thread. Any other failure (the database
+        //being unavailable) ends the stream with an error, the client would otherwise wait for events that never come
+        void run() {
+            try {
+                resyncIfPurged();
+                while (pump()) {
+                    Thread.sleep(pollInterval);
+                }
+            } catch (InterruptedException e) {
+                emitter.complete();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Employee change stream at offset {} failed", offset, e);
+                emitter.completeWithError(e);
+            }
+        }
+
+        //Changes right after the offset were purged. A hole left by a rolled back transaction right after the offset
+        //looks the same once the rows before it are purged too; resyncing is the safe side there
+        private void resyncIfPurged() throws IOException {
+            if (offset == 0) {
+                return;
+            }
+            long oldest = employeeChangeService.getOldestSeq();
+            if (offset + 1 < oldest) {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(oldest - 1))
+                        .name("resync")
+                        .data("Changes after " + offset + " are no longer retained, reload /api/employees"));
+                offset = oldest - 1;
+                lastSent = System.nanoTime();
+            }
+        }
+
+        //Returns false when the client went away
+        boolean pump() {
+            try {
+                List<EmployeeChange> changes;
+                do {
+                    changes = employeeChangeService.getChangesAfter(offset, BATCH_SIZE);
+                } while (send(changes) && changes.size() == BATCH_SIZE);
+                if (System.nanoTime() - lastSent > heartbeatInterval.toNanos()) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    lastSent = System.nanoTime();
+                }
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+                return false;
+            }
+            return true;
+        }
+
+        //Returns false when delivery stopped at a hole
+        private boolean send(List<EmployeeChange> changes) throws IOException {
+            for (EmployeeChange change : changes) {
+                //offset 0 is a fresh consumer, it starts at whatever is the oldest retained change
+                if (offset != 0 && change.getSeq() != offset + 1) {
+                    if (gapSince == 0) {
+                        gapSince = System.nanoTime();
+                    }
+                    if (System.nanoTime() - gapSince < gapTimeout.toNanos()) {
+                        return false;
+                    }
+                }
+                gapSince = 0;
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(change.getSeq()))
+                        .name("employee-change")
+                        .data(change, MediaType.APPLICATION_JSON));
+                offset = change.getSeq();
+                lastSent = System.nanoTime();
+            }
+            return true;
+        }
+    }
+}
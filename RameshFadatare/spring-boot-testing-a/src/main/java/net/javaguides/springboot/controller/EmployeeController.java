@@ -1,21 +1,78 @@
 package net.javaguides.springboot.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.javaguides.springboot.config.EmployeeMetrics;
+import net.javaguides.springboot.dto.BulkCreateResult;
+import net.javaguides.springboot.dto.BulkDeleteResult;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeeSummary;
+import net.javaguides.springboot.dto.EmployeeVersion;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepositoryCustom;
 import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.service.EmployeeStreamService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 
+//Servlet stack; with the "reactive" profile EmployeeRouter serves the same API
 @RestController
 @RequestMapping("/api/employees")
+@Profile("!reactive")
 public class EmployeeController {
 
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int BULK_CHUNK_SIZE = 500;
+    static final int MAX_LOOKUP_IDS = 1000;
+    static final int MAX_DELETE_IDS = 1000;
+
     private EmployeeService employeeService;
 
-    public EmployeeController(EmployeeService employeeService){
+    private ObjectReader employeeReader;
+
+    private ObjectWriter employeeWriter;
+
+    //Writes one NDJSON line per value; the generator is flushed by its buffer filling up, not after every employee
+    private ObjectWriter employeeLineWriter;
+
+    private EmployeeStreamService employeeStreamService;
+
+    private MeterRegistry meterRegistry;
+
+    public EmployeeController(EmployeeService employeeService, EmployeeStreamService employeeStreamService,
+                              ObjectMapper objectMapper, MeterRegistry meterRegistry){
         this.employeeService = employeeService;
+        this.employeeStreamService = employeeStreamService;
+        this.meterRegistry = meterRegistry;
+        this.employeeReader = objectMapper.readerFor(Employee.class);
+        this.employeeWriter = objectMapper.writerFor(Employee.class);
+        this.employeeLineWriter = employeeWriter.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @PostMapping
@@ -24,34 +81,260 @@ public class EmployeeController {
         return employeeService.saveEmployee(employee);
     }
 
+    //Bulk create: accepts a JSON array or newline delimited JSON and saves it in chunks, one transaction per chunk
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public List<BulkCreateResult> createEmployees(InputStream body) throws IOException {
+        List<BulkCreateResult> results = new ArrayList<>();
+        List<Employee> chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+        try (MappingIterator<Employee> employees = employeeReader.readValues(body)) {
+            while (employees.hasNext()) {
+                chunk.add(employees.next());
+                if (chunk.size() == BULK_CHUNK_SIZE) {
+                    saveChunk(chunk, results);
+                }
+            }
+        }
+        saveChunk(chunk, results);
+        return results;
+    }
+
+    private void saveChunk(List<Employee> chunk, List<BulkCreateResult> results){
+        if(chunk.isEmpty()){
+            return;
+        }
+        int offset = results.size();
+        employeeService.saveEmployees(chunk).forEach(result -> results.add(result.withOffset(offset)));
+        chunk.clear();
+    }
+
+    //Collection ETags: a poll with If-None-Match is revalidated against ids and versions only, the employees are
+    //loaded and serialized just when something changed
     @GetMapping
-    public List<Employee> getAllEmployees(){
-        return employeeService.getAllEmployees();
+    public ResponseEntity<List<Employee>> getAllEmployees(WebRequest request){
+        if(notModified(request, Long.MIN_VALUE, Integer.MAX_VALUE)){
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        List<Employee> employees = employeeService.getAllEmployees();
+        return ResponseEntity.ok().eTag(collectionETag(versionsOf(employees))).body(employees);
+    }
+
+    //Keyset pagination: GET /api/employees?limit=100&after=<nextCursor of the previous page>
+    @GetMapping(params = "limit")
+    public ResponseEntity<EmployeePage<Employee>> getEmployeesPage(@RequestParam("limit") int limit,
+                                         @RequestParam(value = "after", required = false) String after,
+                                         WebRequest request){
+        int pageSize = pageSize(limit);
+        long afterId = decodeCursor(after);
+
+        //fetch one extra row to find out whether there is a next page; it is part of the ETag as it decides nextCursor
+        if(notModified(request, afterId, pageSize + 1)){
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        List<Employee> employees = employeeService.getEmployeesAfter(afterId, pageSize + 1);
+        return ResponseEntity.ok().eTag(collectionETag(versionsOf(employees))).body(page(employees, pageSize, Employee::getId));
+    }
+
+    //Batch lookup for clients that would otherwise call GET /api/employees/{id} once per employee:
+    //GET /api/employees?ids=1,2,3 answers with the employees that exist, in the order asked for
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<Employee>> getEmployeesByIds(@RequestParam("ids") List<Long> employeeIds, WebRequest request){
+        if(employeeIds.size() > MAX_LOOKUP_IDS){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_LOOKUP_IDS + " ids per request");
+        }
+        List<Employee> employees = employeeService.getEmployeesByIds(employeeIds);
+        String eTag = collectionETag(versionsOf(employees));
+        if(request.checkNotModified(eTag)){
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(employees);
+    }
+
+    private boolean notModified(WebRequest request, long afterId, int limit){
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(collectionETag(employeeService.getEmployeeVersionsAfter(afterId, limit)));
     }
 
+    //Lightweight listing: GET /api/employees/summaries?limit=100&after=...&fields=id,email
+    //Without fields each row is {id, firstName, lastName}; with fields only those columns are selected (id always is)
+    @GetMapping("/summaries")
+    public EmployeePage<?> getEmployeeSummaries(@RequestParam(value = "limit", defaultValue = "100") int limit,
+                                                @RequestParam(value = "after", required = false) String after,
+                                                @RequestParam(value = "fields", required = false) Set<String> fields){
+        int pageSize = pageSize(limit);
+        long afterId = decodeCursor(after);
+        if(fields == null || fields.isEmpty()){
+            return page(employeeService.getEmployeeSummariesAfter(afterId, pageSize + 1), pageSize, EmployeeSummary::id);
+        }
+        if(!EmployeeRepositoryCustom.SELECTABLE_FIELDS.containsAll(fields)){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "fields must be a subset of " + EmployeeRepositoryCustom.SELECTABLE_FIELDS);
+        }
+        return page(employeeService.getEmployeeFieldsAfter(fields, afterId, pageSize + 1), pageSize, row -> (Long) row.get("id"));
+    }
+
+    static int pageSize(int limit){
+        if(limit < 1){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    static <T> EmployeePage<T> page(List<T> rows, int pageSize, Function<T, Long> idOf){
+        if(rows.size() <= pageSize){
+            return new EmployeePage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, pageSize);
+        return new EmployeePage<>(content, encodeCursor(idOf.apply(content.get(pageSize - 1))));
+    }
+
+    //Streams every employee as newline delimited JSON straight from the database cursor, one generator per response
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEmployees(){
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = employeeLineWriter.createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET).setRootValueSeparator(null);
+                employeeService.streamAllEmployees(employee -> {
+                    try {
+                        employeeLineWriter.writeValue(generator, employee);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    //The same stream as one JSON array for clients that cannot read NDJSON, written from the JDBC cursor without
+    //loading entities; heap per request stays flat with the table size and the response is sent chunked
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEmployeesAsArray(){
+        StreamingResponseBody body = employeeStreamService::writeJsonArray;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    //The ETag is the entity version; If-None-Match with the current one is answered 304 without a body
     @GetMapping("/{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId){
+    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId, WebRequest request){
          return employeeService.getEmployeeById(employeeId)
-                 .map(ResponseEntity::ok)
-                 .orElseGet(() -> ResponseEntity.notFound().build());
+                 .map(employee -> {
+                     String eTag = eTag(employee.getVersion());
+                     if(eTag != null && request.checkNotModified(eTag)){
+                         return ResponseEntity.status(HttpStatus.NOT_MODIFIED).<Employee>build();
+                     }
+                     return ResponseEntity.ok().eTag(eTag).body(employee);
+                 })
+                 .orElseGet(() -> notFound("get"));
     }
 
+    //A version in the body or an If-Match ETag makes the update conditional. A stale body version is answered
+    //with 409 Conflict, a failed If-Match with 412 Precondition Failed
     @PutMapping("{id}")
-    public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee){
-       return employeeService.getEmployeeById(employeeId)
-               .map(savedEmployee -> {
-                   savedEmployee.setFirstName(employee.getFirstName());
-                   savedEmployee.setLastName((employee.getLastName()));
-                   savedEmployee.setEmail(employee.getEmail());
-                   Employee updateEmployee = employeeService.updateEmployee(savedEmployee);
-                   return new ResponseEntity<>(updateEmployee, HttpStatus.OK);
-               })
-               .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        if(ifMatch != null){
+            if(!"*".equals(ifMatch.trim())){
+                employee.setVersion(ifMatchVersion(ifMatch));
+            }
+            try {
+                return employeeService.updateEmployee(employeeId, employee)
+                        .map(updatedEmployee -> ResponseEntity.ok().eTag(eTag(updatedEmployee.getVersion())).body(updatedEmployee))
+                        .orElseGet(() -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build());
+            } catch (ObjectOptimisticLockingFailureException e) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+        }
+        return employeeService.updateEmployee(employeeId, employee)
+                .map(updatedEmployee -> ResponseEntity.ok().eTag(eTag(updatedEmployee.getVersion())).body(updatedEmployee))
+                .orElseGet(() -> notFound("update"));
     }
 
+    //If-Match turns the delete into DELETE ... WHERE version = ?, 412 when the employee changed or is gone
     @DeleteMapping("{id}")
-    public ResponseEntity<String> deleteEmployee(@PathVariable("id") long employeeId){
-        employeeService.deleteEmployee(employeeId);
-        return  new ResponseEntity<String>("Employee deleted successfully", HttpStatus.OK);
+    public ResponseEntity<Void> deleteEmployee(@PathVariable("id") long employeeId,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        if(ifMatch != null){
+            try {
+                return employeeService.deleteEmployee(employeeId, "*".equals(ifMatch.trim()) ? null : ifMatchVersion(ifMatch))
+                        ? ResponseEntity.noContent().build()
+                        : ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            } catch (ObjectOptimisticLockingFailureException e) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+        }
+        return employeeService.deleteEmployee(employeeId)
+                ? ResponseEntity.noContent().build()
+                : notFound("delete");
+    }
+
+    private <T> ResponseEntity<T> notFound(String operation){
+        meterRegistry.counter(EmployeeMetrics.NOT_FOUND, "operation", operation).increment();
+        return ResponseEntity.notFound().build();
+    }
+
+    //Bulk delete: DELETE /api/employees?ids=1,2,3
+    @DeleteMapping(params = "ids")
+    public BulkDeleteResult deleteEmployees(@RequestParam("ids") List<Long> employeeIds){
+        if(employeeIds.size() > MAX_DELETE_IDS){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_DELETE_IDS + " ids per request");
+        }
+        int deleted = employeeService.deleteEmployees(employeeIds);
+        return new BulkDeleteResult((int) employeeIds.stream().distinct().count(), deleted);
+    }
+
+    //Strong ETag of a single employee: its version, which every update increments
+    static String eTag(Long version){
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    //If-Match carries one ETag of this resource; anything that is not a strong ETag we issued can never match
+    static long ifMatchVersion(String ifMatch){
+        String eTag = ifMatch.trim();
+        if(eTag.length() > 2 && eTag.startsWith("\"") && eTag.endsWith("\"")){
+            try {
+                return Long.parseLong(eTag.substring(1, eTag.length() - 1));
+            } catch (NumberFormatException e) {
+                //fall through
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match must be a single ETag of this employee");
+    }
+
+    //Strong ETag of a list: digest of the ids and versions, in id order
+    static String collectionETag(List<EmployeeVersion> versions){
+        List<EmployeeVersion> sorted = new ArrayList<>(versions);
+        sorted.sort(Comparator.comparing(EmployeeVersion::id, Comparator.nullsFirst(Comparator.naturalOrder())));
+        ByteBuffer buffer = ByteBuffer.allocate(sorted.size() * 2 * Long.BYTES);
+        for(EmployeeVersion version : sorted){
+            buffer.putLong(version.id() == null ? -1L : version.id())
+                    .putLong(version.version() == null ? -1L : version.version());
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(buffer.array()) + "\"";
+    }
+
+    private static List<EmployeeVersion> versionsOf(List<Employee> employees){
+        return employees.stream().map(employee -> new EmployeeVersion(employee.getId(), employee.getVersion())).toList();
+    }
+
+    //The cursor is opaque to clients; today it is just the last id of the page, url-safe base64 encoded
+    static String encodeCursor(long lastId){
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long decodeCursor(String cursor){
+        if(cursor == null || cursor.isEmpty()){
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor, e);
+        }
     }
 }
@@ -0,0 +1,211 @@
+package net.javaguides.springboot.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.javaguides.springboot.config.EmployeeMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+//Load shedding in front of EmployeeController, so a runaway client (an HR sync job flooding POST / PUT) is turned
+//away with 429 before it holds a thread and a connection. Reads (GET, HEAD), writes and bulk writes (POST /batch,
+//DELETE ?ids) have separate budgets, so writes can exhaust theirs without touching the reads', and an import that
+//legitimately takes seconds does not make the write limit back off for everyone else. Per budget, in this order:
+//  client       token bucket per client (the remote address), evicted when idle
+//  global       token bucket shared by all clients
+//  concurrency  AimdConcurrencyLimit on requests in flight, adapting to how long requests take to be handled
+//A request is only charged when it passes all three: tokens taken by an earlier check are given back on rejection.
+//Retry-After is the time until the bucket has a token again, one second for the concurrency limit.
+//Streaming responses (JSON array, NDJSON, the change stream) finish asynchronously: they count against the token
+//buckets, but release their concurrency slot when the handler returns and give no latency sample.
+//Registered by RateLimitConfig for /api/employees/*.
+public class EmployeeRateLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    //names the client behind a shared proxy; anyone can set a header, so it is only read on requests coming from
+    //one of the trusted-proxies addresses, otherwise every new value would get a full bucket of its own
+    @Value("${employee.rate-limit.client-header:X-Client-Id}")
+    String clientHeader = "X-Client-Id";
+
+    @Value("${employee.rate-limit.trusted-proxies:}")
+    Set<String> trustedProxies = Set.of();
+
+    //how many seconds of its rate a bucket can hold, i.e. the burst it absorbs after being idle
+    @Value("${employee.rate-limit.burst:1s}")
+    Duration burst = Duration.ofSeconds(1);
+
+    @Value("${employee.rate-limit.max-clients:10000}")
+    long maxClients = 10_000;
+
+    @Value("${employee.rate-limit.read.rate:2000}")
+    double readRate = 2000;
+
+    @Value("${employee.rate-limit.read.client-rate:200}")
+    double readClientRate = 200;
+
+    @Value("${employee.rate-limit.read.max-concurrency:200}")
+    int readMaxConcurrency = 200;
+
+    @Value("${employee.rate-limit.read.latency-target:50ms}")
+    Duration readLatencyTarget = Duration.ofMillis(50);
+
+    @Value("${employee.rate-limit.write.rate:200}")
+    double writeRate = 200;
+
+    @Value("${employee.rate-limit.write.client-rate:50}")
+    double writeClientRate = 50;
+
+    @Value("${employee.rate-limit.write.max-concurrency:20}")
+    int writeMaxConcurrency = 20;
+
+    @Value("${employee.rate-limit.write.latency-target:100ms}")
+    Duration writeLatencyTarget = Duration.ofMillis(100);
+
+    @Value("${employee.rate-limit.bulk.rate:20}")
+    double bulkRate = 20;
+
+    @Value("${employee.rate-limit.bulk.client-rate:5}")
+    double bulkClientRate = 5;
+
+    @Value("${employee.rate-limit.bulk.max-concurrency:4}")
+    int bulkMaxConcurrency = 4;
+
+    @Value("${employee.rate-limit.bulk.latency-target:5s}")
+    Duration bulkLatencyTarget = Duration.ofSeconds(5);
+
+    private Budget reads;
+
+    private Budget writes;
+
+    private Budget bulkWrites;
+
+    //Called on bean initialization and again by the servlet container; the budgets are only created once
+    @Override
+    protected void initFilterBean() {
+        if (reads != null) {
+            return;
+        }
+        reads = new Budget("read", readRate, readClientRate, readMaxConcurrency, readLatencyTarget);
+        writes = new Budget("write", writeRate, writeClientRate, writeMaxConcurrency, writeLatencyTarget);
+        bulkWrites = new Budget("bulk", bulkRate, bulkClientRate, bulkMaxConcurrency, bulkLatencyTarget);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Budget budget = isRead(request) ? reads : isBulk(request) ? bulkWrites : writes;
+        long now = System.nanoTime();
+        TokenBucket client = budget.clientBucket(clientOf(request), now);
+        long wait = client.tryAcquire(now);
+        if (wait > 0) {
+            reject(response, budget, "client", wait);
+            return;
+        }
+        wait = budget.global.tryAcquire(now);
+        if (wait > 0) {
+            client.refund();
+            reject(response, budget, "global", wait);
+            return;
+        }
+        if (!budget.concurrency.tryAcquire()) {
+            client.refund();
+            budget.global.refund();
+            reject(response, budget, "concurrency", TimeUnit.SECONDS.toNanos(1));
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            budget.concurrency.release(request.isAsyncStarted() ? -1 : System.nanoTime() - start, failed);
+        }
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+    }
+
+    private static boolean isBulk(HttpServletRequest request) {
+        return "POST".equals(request.getMethod()) && request.getRequestURI().endsWith("/batch")
+                || "DELETE".equals(request.getMethod()) && request.getParameter("ids") != null;
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (trustedProxies.contains(address)) {
+            String client = request.getHeader(clientHeader);
+            if (client != null && !client.isBlank()) {
+                return client;
+            }
+        }
+        return address;
+    }
+
+    private void reject(HttpServletResponse response, Budget budget, String reason, long waitNanos) throws IOException {
+        meterRegistry.counter(EmployeeMetrics.RATE_LIMIT_REJECTIONS, "class", budget.name, "reason", reason).increment();
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many requests, retry after " + retryAfter + "s");
+    }
+
+    private final class Budget {
+
+        final String name;
+        final TokenBucket global;
+        final Cache<String, TokenBucket> clients;
+        final AimdConcurrencyLimit concurrency;
+        private final double clientRate;
+
+        Budget(String name, double rate, double clientRate, int maxConcurrency, Duration latencyTarget) {
+            this.name = name;
+            this.clientRate = clientRate;
+            this.global = new TokenBucket(rate, tokens(rate), System.nanoTime());
+            //a client idle for longer than the burst window has a full bucket again, so forgetting it changes nothing
+            this.clients = Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(burst.plusSeconds(1))
+                    .build();
+            this.concurrency = new AimdConcurrencyLimit(maxConcurrency / 2, 1, maxConcurrency, latencyTarget.toNanos());
+            Gauge.builder(EmployeeMetrics.CONCURRENCY_LIMIT, concurrency, AimdConcurrencyLimit::limit)
+                    .tag("class", name)
+                    .register(meterRegistry);
+            Gauge.builder(EmployeeMetrics.CONCURRENCY_IN_FLIGHT, concurrency, AimdConcurrencyLimit::inFlight)
+                    .tag("class", name)
+                    .register(meterRegistry);
+            Gauge.builder(EmployeeMetrics.RATE_LIMIT_TOKENS, global, bucket -> bucket.available(System.nanoTime()))
+                    .tag("class", name)
+                    .register(meterRegistry);
+            Gauge.builder(EmployeeMetrics.RATE_LIMIT_CLIENTS, clients, Cache::estimatedSize)
+                    .tag("class", name)
+                    .register(meterRegistry);
+        }
+
+        TokenBucket clientBucket(String client, long now) {
+            return clients.get(client, key -> new TokenBucket(clientRate, tokens(clientRate), now));
+        }
+
+        private double tokens(double rate) {
+            return Math.max(1, rate * burst.toNanos() / 1e9);
+        }
+    }
+}
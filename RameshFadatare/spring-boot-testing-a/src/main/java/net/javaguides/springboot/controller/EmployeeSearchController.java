@@ -0,0 +1,38 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.dto.EmployeeSearchResult;
+import net.javaguides.springboot.service.EmployeeSearchService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/employees/search")
+@Profile("!reactive")
+public class EmployeeSearchController {
+
+    static final int MAX_HITS = 50;
+
+    private EmployeeSearchService employeeSearchService;
+
+    public EmployeeSearchController(EmployeeSearchService employeeSearchService){
+        this.employeeSearchService = employeeSearchService;
+    }
+
+    //Prefix search over names and emails: ?q=bhe sh matches "Bheem Shekhar", best matches first
+    @GetMapping
+    public EmployeeSearchResult search(@RequestParam("q") String query,
+                                       @RequestParam(value = "limit", defaultValue = "10") int limit){
+        if(query.isBlank()){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q must not be blank");
+        }
+        if(limit < 1){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        return employeeSearchService.search(query, Math.min(limit, MAX_HITS));
+    }
+}
@@ -0,0 +1,67 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.dto.SnapshotResult;
+import net.javaguides.springboot.service.EmployeeSnapshotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+
+//Admin endpoints for the binary employee snapshot: GET downloads the table (?compress=true for DEFLATE), POST loads a
+//snapshot into it. Both stream, the snapshot is never held in memory.
+//Off unless employee.snapshot.endpoints.enabled=true: anyone who reaches the API could dump or overwrite the table
+@RestController
+@RequestMapping("/api/admin/employees/snapshot")
+@Profile("!reactive & !offheap")
+@ConditionalOnProperty(name = "employee.snapshot.endpoints.enabled", havingValue = "true")
+public class EmployeeSnapshotController {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSnapshotController.class);
+
+    private EmployeeSnapshotService employeeSnapshotService;
+
+    public EmployeeSnapshotController(EmployeeSnapshotService employeeSnapshotService){
+        this.employeeSnapshotService = employeeSnapshotService;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportSnapshot(@RequestParam(value = "compress", defaultValue = "false") boolean compress){
+        StreamingResponseBody body = outputStream -> {
+            SnapshotResult result = employeeSnapshotService.exportSnapshot(Channels.newChannel(outputStream), compress);
+            log.info("Exported {} employees ({} bytes) in {} ms, {} rows/s",
+                    result.rows(), result.bytes(), result.millis(), result.rowsPerSecond());
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("employees.snapshot").build().toString())
+                .body(body);
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public SnapshotResult importSnapshot(InputStream body){
+        try {
+            SnapshotResult result = employeeSnapshotService.importSnapshot(Channels.newChannel(body));
+            log.info("Imported {} employees ({} bytes) in {} ms, {} rows/s",
+                    result.rows(), result.bytes(), result.millis(), result.rowsPerSecond());
+            return result;
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.dto.EmployeeWriteStatus;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeWriteBehindService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+//Write-behind variant of POST / PUT /api/employees for bulk syncs: answers 202 Accepted with a tracking id as soon
+//as the write is queued, GET /status/{trackingId} reports QUEUED, COMMITTED or FAILED. 503 when the queue is full
+@RestController
+@RequestMapping("/api/employees/write-behind")
+@Profile("!reactive & !offheap")
+@ConditionalOnProperty(name = "employee.write-behind.enabled", havingValue = "true")
+public class EmployeeWriteBehindController {
+
+    private EmployeeWriteBehindService employeeWriteBehindService;
+
+    public EmployeeWriteBehindController(EmployeeWriteBehindService employeeWriteBehindService){
+        this.employeeWriteBehindService = employeeWriteBehindService;
+    }
+
+    @PostMapping
+    public ResponseEntity<EmployeeWriteStatus> createEmployee(@RequestBody Employee employee){
+        return accepted(employeeWriteBehindService.submitCreate(employee));
+    }
+
+    @PutMapping("{id}")
+    public ResponseEntity<EmployeeWriteStatus> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee){
+        return accepted(employeeWriteBehindService.submitUpdate(employeeId, employee));
+    }
+
+    @GetMapping("/status/{trackingId}")
+    public ResponseEntity<EmployeeWriteStatus> getStatus(@PathVariable("trackingId") String trackingId){
+        return employeeWriteBehindService.getStatus(trackingId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static ResponseEntity<EmployeeWriteStatus> accepted(EmployeeWriteStatus status){
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/employees/write-behind/status/" + status.trackingId()))
+                .body(status);
+    }
+}
@@ -0,0 +1,25 @@
+package net.javaguides.springboot.dto;
+
+//Outcome of one row of a bulk create request; index is the position of the row in the request body
+public record BulkCreateResult(int index, Status status, Long id, String email, String message) {
+
+    public enum Status {
+        CREATED, DUPLICATE, INVALID
+    }
+
+    public static BulkCreateResult created(int index, Long id, String email) {
+        return new BulkCreateResult(index, Status.CREATED, id, email, null);
+    }
+
+    public static BulkCreateResult duplicate(int index, String email) {
+        return new BulkCreateResult(index, Status.DUPLICATE, null, email, "Employee already Exists with this email :" + email);
+    }
+
+    public static BulkCreateResult invalid(int index, String email, String message) {
+        return new BulkCreateResult(index, Status.INVALID, null, email, message);
+    }
+
+    public BulkCreateResult withOffset(int offset) {
+        return new BulkCreateResult(index + offset, status, id, email, message);
+    }
+}
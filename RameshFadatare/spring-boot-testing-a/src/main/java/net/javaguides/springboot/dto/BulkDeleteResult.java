@@ -0,0 +1,5 @@
+package net.javaguides.springboot.dto;
+
+//requested counts the distinct ids in the request, deleted the rows that actually existed
+public record BulkDeleteResult(int requested, int deleted) {
+}
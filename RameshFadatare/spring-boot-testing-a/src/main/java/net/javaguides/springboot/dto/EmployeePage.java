@@ -0,0 +1,7 @@
+package net.javaguides.springboot.dto;
+
+import java.util.List;
+
+//One keyset page of employees, summaries or sparse field maps; nextCursor is null on the last page
+public record EmployeePage<T>(List<T> content, String nextCursor) {
+}
@@ -0,0 +1,4 @@
+package net.javaguides.springboot.dto;
+
+public record EmployeeSearchHit(Long id, String firstName, String lastName, String email, int score) {
+}
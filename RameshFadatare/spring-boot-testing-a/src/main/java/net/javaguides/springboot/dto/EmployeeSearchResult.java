@@ -0,0 +1,7 @@
+package net.javaguides.springboot.dto;
+
+import java.util.List;
+
+//Best hits first; partial is true when the latency budget ran out before every candidate was scored
+public record EmployeeSearchResult(List<EmployeeSearchHit> hits, boolean partial) {
+}
@@ -0,0 +1,5 @@
+package net.javaguides.springboot.dto;
+
+//Read-only list row - built straight from the selected columns, never a managed entity
+public record EmployeeSummary(Long id, String firstName, String lastName) {
+}
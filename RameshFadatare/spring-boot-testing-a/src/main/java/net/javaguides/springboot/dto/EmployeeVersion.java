@@ -0,0 +1,5 @@
+package net.javaguides.springboot.dto;
+
+//Id and version only - enough to tell whether a list of employees changed without loading it
+public record EmployeeVersion(Long id, Long version) {
+}
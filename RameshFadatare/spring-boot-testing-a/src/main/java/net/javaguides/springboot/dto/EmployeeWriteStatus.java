@@ -0,0 +1,22 @@
+package net.javaguides.springboot.dto;
+
+//State of a write accepted in write-behind mode. employeeId is known up front for updates and once committed for
+//creates; message explains a FAILED write
+public record EmployeeWriteStatus(String trackingId, State state, Long employeeId, String message) {
+
+    public enum State {
+        QUEUED, COMMITTED, FAILED
+    }
+
+    public static EmployeeWriteStatus queued(String trackingId, Long employeeId) {
+        return new EmployeeWriteStatus(trackingId, State.QUEUED, employeeId, null);
+    }
+
+    public static EmployeeWriteStatus committed(String trackingId, Long employeeId) {
+        return new EmployeeWriteStatus(trackingId, State.COMMITTED, employeeId, null);
+    }
+
+    public static EmployeeWriteStatus failed(String trackingId, Long employeeId, String message) {
+        return new EmployeeWriteStatus(trackingId, State.FAILED, employeeId, message);
+    }
+}
@@ -0,0 +1,10 @@
+package net.javaguides.springboot.dto;
+
+//Outcome of a snapshot export or import; bytes is the size of the snapshot as stored, i.e. after compression
+public record SnapshotResult(long rows, long bytes, long millis, long rowsPerSecond) {
+
+    public static SnapshotResult of(long rows, long bytes, long nanos) {
+        long millis = nanos / 1_000_000;
+        return new SnapshotResult(rows, bytes, millis, nanos == 0 ? rows : rows * 1_000_000_000L / nanos);
+    }
+}
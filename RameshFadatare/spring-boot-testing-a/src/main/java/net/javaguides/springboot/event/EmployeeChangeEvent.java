@@ -0,0 +1,19 @@
+package net.javaguides.springboot.event;
+
+import net.javaguides.springboot.model.Employee;
+
+//Published by EmployeeServiceImpl after every successful write, inside its transaction. Listeners pick their phase:
+//the change log writes BEFORE_COMMIT in that transaction, the search index updates AFTER_COMMIT.
+//For DELETED only the id is set, for SAVED the employee carries the state that was written
+public record EmployeeChangeEvent(Type type, Long id, Employee employee) {
+
+    public enum Type { SAVED, DELETED }
+
+    public static EmployeeChangeEvent saved(Employee employee) {
+        return new EmployeeChangeEvent(Type.SAVED, employee.getId(), employee);
+    }
+
+    public static EmployeeChangeEvent deleted(Long id) {
+        return new EmployeeChangeEvent(Type.DELETED, id, null);
+    }
+}
@@ -0,0 +1,8 @@
+package net.javaguides.springboot.event;
+
+import java.util.List;
+
+//Published by EmployeeServiceImpl once per chunk of a bulk write instead of one EmployeeChangeEvent per row, so the
+//change log inserts the chunk's rows as one JDBC batch
+public record EmployeeChangesEvent(List<EmployeeChangeEvent> changes) {
+}
@@ -0,0 +1,5 @@
+package net.javaguides.springboot.event;
+
+//Published after a snapshot import wrote rows directly with JDBC, bypassing EmployeeService and its change events
+public record EmployeesImportedEvent(long rows) {
+}
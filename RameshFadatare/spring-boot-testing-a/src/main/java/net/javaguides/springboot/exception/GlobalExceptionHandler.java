@@ -0,0 +1,39 @@
+package net.javaguides.springboot.exception;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    //The employee was changed by someone else since the client read it
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailure(OptimisticLockingFailureException exception){
+        return new ResponseEntity<>("Employee was modified concurrently, reload and retry", HttpStatus.CONFLICT);
+    }
+
+    //Raised by saveEmployee when the unique email index rejects the insert
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<String> handleDuplicateEmployee(ResourceNotFoundException exception){
+        return new ResponseEntity<>(exception.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    //Any other constraint hit, e.g. an update or a bulk chunk racing another writer for the same email
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleDataIntegrityViolation(DataIntegrityViolationException exception){
+        return new ResponseEntity<>("Employee conflicts with existing data", HttpStatus.CONFLICT);
+    }
+
+    //Write-behind queue stayed full for the whole offer timeout; the client should back off and resubmit
+    @ExceptionHandler(WriteQueueFullException.class)
+    public ResponseEntity<String> handleWriteQueueFull(WriteQueueFullException exception){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(exception.getMessage());
+    }
+}
@@ -0,0 +1,8 @@
+package net.javaguides.springboot.exception;
+
+public class WriteQueueFullException extends RuntimeException{
+
+    public WriteQueueFullException(String message){
+        super(message);
+    }
+}
@@ -2,6 +2,8 @@ package net.javaguides.springboot.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Setter
 @Getter
@@ -9,11 +11,29 @@ import lombok.*;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name="employees")
+//Second-level cached by id (HibernateCacheConfig); READ_WRITE locks the entry while a transaction changes the row
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Employee.CACHE_REGION)
+//The unique index backs duplicate detection on insert and the email lookups; the name index serves findByJPQL / findByNativeQuery
+//(on existing MySQL databases SchemaUpgrade adds the unique index, ddl-auto would skip it silently over duplicates)
+@Table(name="employees",
+        uniqueConstraints = @UniqueConstraint(name = Employee.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email"),
+        indexes = @Index(name = "idx_employees_first_name_last_name", columnList = "first_name, last_name"))
 public class Employee {
 
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_employees_email";
+
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    public static final String CACHE_REGION = "employees";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    //Pooled sequence instead of IDENTITY so Hibernate can batch inserts; 50 ids are reserved per round trip.
+    //On MySQL the sequence is a table (seeded by SchemaUpgrade for databases from before); each reservation is an
+    //update in a transaction of its own, on a second pool connection borrowed while the insert's is held
+    //(the reason allocationSize must stay well above 1)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
+    @SequenceGenerator(name = "employees_seq", sequenceName = "employees_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "first_name", nullable = false)
@@ -24,4 +44,9 @@ public class Employee {
 
     @Column(nullable = false)
     private String email;
+
+    //Optimistic locking - bumped on every update so concurrent writers cannot silently overwrite each other
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
@@ -0,0 +1,41 @@
+package net.javaguides.springboot.model;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import lombok.*;
+import net.javaguides.springboot.event.EmployeeChangeEvent;
+
+import java.time.Instant;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+//Transactional outbox: one row per employee write, inserted in the writing transaction and streamed by seq
+@Table(name = "employee_changes", indexes = @Index(name = "idx_employee_changes_changed_at", columnList = "changed_at"))
+public class EmployeeChange {
+
+    //Auto-increment: seq has to follow insert order closely, so ids cannot be reserved in blocks per instance, and
+    //MySQL has no sequences - one emulated with a table would take a second pool connection for every outbox insert
+    //while the write transaction holds the first. Rows are inserted with JDBC batches, which need no keys back
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EmployeeChangeEvent.Type type;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    //the employee as JSON after the write, null for DELETED
+    @JsonRawValue
+    @Column(name = "employee_json", length = 4000)
+    private String employee;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+}
@@ -0,0 +1,26 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.EmployeeChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface EmployeeChangeRepository extends JpaRepository<EmployeeChange, Long> {
+
+    //Range scan on the primary key from the consumer's offset
+    List<EmployeeChange> findBySeqGreaterThanOrderBySeqAsc(Long seq, Limit limit);
+
+    @Query("select min(c.seq) from EmployeeChange c")
+    Long findOldestSeq();
+
+    @Modifying
+    @Query("delete from EmployeeChange c where c.changedAt < :before")
+    int deleteChangesBefore(@Param("before") Instant before);
+}
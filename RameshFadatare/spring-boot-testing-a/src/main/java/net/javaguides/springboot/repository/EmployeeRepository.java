@@ -1,27 +1,98 @@
 package net.javaguides.springboot.repository;
 
+import jakarta.persistence.QueryHint;
+import net.javaguides.springboot.config.HibernateCacheConfig;
+import net.javaguides.springboot.dto.EmployeeSummary;
+import net.javaguides.springboot.dto.EmployeeVersion;
 import net.javaguides.springboot.model.Employee;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
 
     Optional<Employee> findByEmail(String email);
 
-    //Define Custom Query using JPQL with index params
+    //Define Custom Query using JPQL with index params; results are kept in the query cache until an employee changes
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.EMPLOYEE_QUERIES)
+    })
     @Query("select e from Employee e where e.firstName = ?1 and e.lastName = ?2")
     Employee findByJPQL(String firstName, String lastName);
 
     //Define Custom Query using JPQL with named params
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.EMPLOYEE_QUERIES)
+    })
     @Query("select e from Employee e where e.firstName =:firstName and e.lastName =:lastName")
     Employee findByJPQLNamedParams(@Param("firstName") String firstName, @Param("lastName") String lastName);
 
     //Define Custom Query using JPQL with Native Query
     @Query(value = "select * from employees e where e.first_name =?1 and e.last_name =?2", nativeQuery = true)
     Employee findByNativeQuery(String firstName, String lastName);
+
+    //Batched duplicate check - which of the given emails are already taken, in one IN query
+    @Query("select e.email from Employee e where e.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    //Single statement update without loading the entity first; the version check is skipped when version is null
+    @Modifying(clearAutomatically = true)
+    @Query("update Employee e set e.firstName = :firstName, e.lastName = :lastName, e.email = :email, e.version = e.version + 1 " +
+            "where e.id = :id and (:version is null or e.version = :version)")
+    int updateEmployee(@Param("id") Long id, @Param("firstName") String firstName, @Param("lastName") String lastName,
+                       @Param("email") String email, @Param("version") Long version);
+
+    //Version after an unconditional updateEmployee; the UPDATE's row lock holds it until the transaction ends
+    @Query("select e.version from Employee e where e.id = :id")
+    Long findVersionById(@Param("id") Long id);
+
+    //Direct deletes - no entity is loaded first and the caller learns how many rows were actually removed
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Employee e where e.id = :id")
+    int deleteEmployeeById(@Param("id") Long id);
+
+    //Conditional delete for If-Match: removes the row only while it still has the version the client saw
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Employee e where e.id = :id and e.version = :version")
+    int deleteEmployeeByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+
+    //Which of the ids still exist, locked until the transaction ends so the bulk delete removes exactly these rows
+    @Query(value = "select id from employees where id in (:ids) for update", nativeQuery = true)
+    List<Long> lockExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Employee e where e.id in :ids")
+    int deleteEmployeesByIds(@Param("ids") Collection<Long> ids);
+
+    //Keyset pagination - next page of employees ordered by id, seeking past the last id already seen
+    List<Employee> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    //Same keyset page as a DTO projection - only id and the name are selected and nothing enters the persistence context
+    List<EmployeeSummary> findSummariesByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    //Ids and versions of the same keyset page, for revalidating a collection ETag without loading the employees
+    List<EmployeeVersion> findVersionsByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    //Streams every employee through a JDBC cursor; the fetch size keeps the driver from buffering the whole result set
+    //(MySQL needs useCursorFetch=true on the connection url for this). Must be consumed inside a transaction.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Employee e order by e.id")
+    Stream<Employee> streamAllOrderById();
 }
@@ -0,0 +1,14 @@
+package net.javaguides.springboot.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface EmployeeRepositoryCustom {
+
+    //Attributes that can be requested as a sparse fieldset
+    Set<String> SELECTABLE_FIELDS = Set.of("id", "firstName", "lastName", "email", "version");
+
+    //Keyset page selecting only the given attributes; id is always selected because it is the cursor
+    List<Map<String, Object>> findFieldsByIdGreaterThan(Set<String> fields, long afterId, int limit);
+}
@@ -0,0 +1,11 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.model.EmployeeChange;
+
+import java.util.List;
+
+public interface EmployeeChangeService {
+    List<EmployeeChange> getChangesAfter(long afterSeq, int limit);
+
+    long getOldestSeq();
+}
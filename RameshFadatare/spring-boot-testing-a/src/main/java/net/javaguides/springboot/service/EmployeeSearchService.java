@@ -0,0 +1,7 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.dto.EmployeeSearchResult;
+
+public interface EmployeeSearchService {
+    EmployeeSearchResult search(String query, int limit);
+}
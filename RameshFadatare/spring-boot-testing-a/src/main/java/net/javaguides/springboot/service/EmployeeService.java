@@ -1,18 +1,43 @@
 package net.javaguides.springboot.service;
 
+import net.javaguides.springboot.dto.BulkCreateResult;
+import net.javaguides.springboot.dto.EmployeeSummary;
+import net.javaguides.springboot.dto.EmployeeVersion;
 import net.javaguides.springboot.model.Employee;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
     Employee saveEmployee(Employee employee);
 
+    List<BulkCreateResult> saveEmployees(List<Employee> employees);
+
     List<Employee> getAllEmployees();
 
+    List<Employee> getEmployeesAfter(long afterId, int limit);
+
+    List<EmployeeSummary> getEmployeeSummariesAfter(long afterId, int limit);
+
+    List<EmployeeVersion> getEmployeeVersionsAfter(long afterId, int limit);
+
+    List<Map<String, Object>> getEmployeeFieldsAfter(Set<String> fields, long afterId, int limit);
+
+    void streamAllEmployees(Consumer<Employee> consumer);
+
     Optional<Employee> getEmployeeById(Long id);
 
-    Employee updateEmployee(Employee updatedEmployee);
+    List<Employee> getEmployeesByIds(Collection<Long> ids);
+
+    Optional<Employee> updateEmployee(Long id, Employee updatedEmployee);
+
+    boolean deleteEmployee(Long id);
+
+    boolean deleteEmployee(Long id, Long expectedVersion);
 
-    void deleteEmployee(Long id);
+    int deleteEmployees(Collection<Long> ids);
 }
@@ -0,0 +1,13 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.dto.SnapshotResult;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+public interface EmployeeSnapshotService {
+    SnapshotResult exportSnapshot(WritableByteChannel out, boolean compress) throws IOException;
+
+    SnapshotResult importSnapshot(ReadableByteChannel in) throws IOException;
+}
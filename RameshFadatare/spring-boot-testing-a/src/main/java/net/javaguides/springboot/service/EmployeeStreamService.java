@@ -0,0 +1,8 @@
+package net.javaguides.springboot.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface EmployeeStreamService {
+    long writeJsonArray(OutputStream out) throws IOException;
+}
@@ -0,0 +1,14 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.dto.EmployeeWriteStatus;
+import net.javaguides.springboot.model.Employee;
+
+import java.util.Optional;
+
+public interface EmployeeWriteBehindService {
+    EmployeeWriteStatus submitCreate(Employee employee);
+
+    EmployeeWriteStatus submitUpdate(Long id, Employee employee);
+
+    Optional<EmployeeWriteStatus> getStatus(String trackingId);
+}
@@ -0,0 +1,112 @@
+package net.javaguides.springboot.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.event.EmployeeChangeEvent;
+import net.javaguides.springboot.event.EmployeeChangesEvent;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.repository.EmployeeChangeRepository;
+import net.javaguides.springboot.service.EmployeeChangeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+//Change log of employee writes for mirrors (GET /api/employees/changes). Rows are written before the commit of the
+//transaction that changed the employee, so a change is logged if and only if it happened. Only writes through
+//EmployeeService are seen, and only in the servlet stack.
+//Rows go in through JDBC batches: with an auto-increment seq Hibernate would insert them one statement at a time,
+//a bulk write of a thousand employees would add a thousand round trips to its commit.
+@Service
+@Profile("!reactive & !offheap")
+public class EmployeeChangeServiceImpl implements EmployeeChangeService {
+
+    static final String INSERT = "insert into employee_changes (type, employee_id, employee_json, changed_at) values (?, ?, ?, ?)";
+
+    //changed_at is bound as Hibernate binds an Instant into a MySQL datetime column: the UTC wall clock
+    private static final Calendar UTC = Calendar.getInstance(TimeZone.getTimeZone(ZoneOffset.UTC));
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeChangeServiceImpl.class);
+
+    @Autowired
+    EmployeeChangeRepository employeeChangeRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Value("${employee.changes.retention:7d}")
+    Duration retention = Duration.ofDays(7);
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onEmployeeChange(EmployeeChangeEvent event) {
+        insert(List.of(event));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onEmployeeChanges(EmployeeChangesEvent event) {
+        insert(event.changes());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeChange> getChangesAfter(long afterSeq, int limit) {
+        return employeeChangeRepository.findBySeqGreaterThanOrderBySeqAsc(afterSeq, Limit.of(limit));
+    }
+
+    //0 when the log is empty
+    @Override
+    @Transactional(readOnly = true)
+    public long getOldestSeq() {
+        Long seq = employeeChangeRepository.findOldestSeq();
+        return seq == null ? 0 : seq;
+    }
+
+    //Mirrors offline for longer than the retention have to resync from GET /api/employees
+    @Scheduled(fixedDelayString = "${employee.changes.purge-interval:1h}", initialDelayString = "${employee.changes.purge-interval:1h}")
+    @Transactional
+    public void purgeExpiredChanges() {
+        int purged = employeeChangeRepository.deleteChangesBefore(Instant.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} employee changes older than {}", purged, retention);
+        }
+    }
+
+    //JdbcTemplate joins the JPA transaction, the rows commit (or roll back) with the employee write
+    private void insert(List<EmployeeChangeEvent> events) {
+        Timestamp changedAt = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT, events, events.size(), (statement, event) -> {
+            statement.setString(1, event.type().name());
+            statement.setLong(2, event.id());
+            statement.setString(3, event.employee() == null ? null : toJson(event));
+            statement.setTimestamp(4, changedAt, UTC);
+        });
+    }
+
+    private String toJson(EmployeeChangeEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event.employee());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package net.javaguides.springboot.service.impl;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.javaguides.springboot.config.EmployeeMetrics;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//Micro-batching of single employee lookups (DataLoader style): the first lookup opens a window of employee.lookup.window,
+//every lookup arriving within it joins, and the whole window is read with one findAllById IN query. Lookups of the same
+//id share one slot. A window that reaches max-batch-size is loaded at once instead of waiting out the timer.
+//Sits behind the employeesById cache, so only misses pay the window; a window of 0 turns coalescing off.
+@Component
+@Profile("!reactive & !offheap")
+public class EmployeeLookupCoalescer implements DisposableBean {
+
+    @Autowired
+    EmployeeRepository employeeRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${employee.lookup.window:2ms}")
+    Duration window = Duration.ofMillis(2);
+
+    @Value("${employee.lookup.max-batch-size:100}")
+    int maxBatchSize = 100;
+
+    //how long a caller waits for its window to be loaded
+    @Value("${employee.lookup.timeout:5s}")
+    Duration timeout = Duration.ofSeconds(5);
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    //lookups of the window that is currently open
+    private Map<Long, CompletableFuture<Optional<Employee>>> pending = new HashMap<>();
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-lookup-window");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    //the IN queries run on virtual threads so a slow one does not hold back the next window
+    private final ExecutorService loaders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public Optional<Employee> load(Long id) {
+        if (window.isZero()) {
+            return employeeRepository.findById(id);
+        }
+        CompletableFuture<Optional<Employee>> lookup;
+        Map<Long, CompletableFuture<Optional<Employee>>> fullBatch = null;
+        lock.lock();
+        try {
+            lookup = pending.get(id);
+            if (lookup == null) {
+                lookup = new CompletableFuture<>();
+                pending.put(id, lookup);
+                if (pending.size() >= maxBatchSize) {
+                    fullBatch = takePending();
+                } else if (pending.size() == 1) {
+                    timer.schedule(this::closeWindow, window.toNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (fullBatch != null) {
+            Map<Long, CompletableFuture<Optional<Employee>>> batch = fullBatch;
+            loaders.execute(() -> loadBatch(batch));
+        }
+        return await(id, lookup);
+    }
+
+    //A timer left over from a window that was already loaded because it filled up just closes the next window early
+    private void closeWindow() {
+        Map<Long, CompletableFuture<Optional<Employee>>> batch;
+        lock.lock();
+        try {
+            batch = takePending();
+        } finally {
+            lock.unlock();
+        }
+        if (!batch.isEmpty()) {
+            loaders.execute(() -> loadBatch(batch));
+        }
+    }
+
+    private Map<Long, CompletableFuture<Optional<Employee>>> takePending() {
+        Map<Long, CompletableFuture<Optional<Employee>>> batch = pending;
+        pending = new HashMap<>();
+        return batch;
+    }
+
+    private void loadBatch(Map<Long, CompletableFuture<Optional<Employee>>> batch) {
+        DistributionSummary.builder(EmployeeMetrics.LOOKUP_BATCH_SIZE)
+                .register(meterRegistry)
+                .record(batch.size());
+        try {
+            Map<Long, Employee> employees = employeeRepository.findAllById(batch.keySet()).stream()
+                    .collect(Collectors.toMap(Employee::getId, Function.identity()));
+            batch.forEach((id, lookup) -> lookup.complete(Optional.ofNullable(employees.get(id))));
+        } catch (RuntimeException e) {
+            batch.values().forEach(lookup -> lookup.completeExceptionally(e));
+        }
+    }
+
+    private Optional<Employee> await(Long id, CompletableFuture<Optional<Employee>> lookup) {
+        try {
+            return lookup.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Lookup of employee " + id + " failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("Lookup of employee " + id + " took longer than " + timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while looking up employee " + id, e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+        //lookups still in the open window are loaded before the loaders are closed
+        closeWindow();
+        loaders.close();
+    }
+}
@@ -0,0 +1,269 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.dto.EmployeeSearchHit;
+import net.javaguides.springboot.dto.EmployeeSearchResult;
+import net.javaguides.springboot.event.EmployeeChangeEvent;
+import net.javaguides.springboot.event.EmployeeChangesEvent;
+import net.javaguides.springboot.event.EmployeesImportedEvent;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeSearchService;
+import net.javaguides.springboot.service.EmployeeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+//Type-ahead search over first name, last name and email without touching the database.
+//Every word of the query must match: a token prefix via the sorted token map, or for 3+ characters any substring
+//via a trigram index. Writers are serialized, readers never lock. The index is built from the table once the
+//application is ready and then follows EmployeeChangeEvents, so it only sees writes made through EmployeeService.
+@Service
+@Profile("!reactive")
+public class EmployeeSearchServiceImpl implements EmployeeSearchService {
+
+    //score of one query word: exact token beats token prefix beats substring, names and the email's local part
+    //weigh more than the email domain
+    static final int NAME_WEIGHT = 2;
+    static final int DOMAIN_WEIGHT = 1;
+    static final int EXACT_BONUS = 2;
+    static final int SUBSTRING_SCORE = 1;
+
+    //the clock is read once per this many postings, a single common token can hold every employee
+    static final int DEADLINE_CHECK_INTERVAL = 256;
+
+    //mail providers and top-level domains are shared by most employees: as tokens they would match nearly everyone
+    //and only cost time, so they are left out of the index
+    static final Set<String> DOMAIN_STOP_WORDS = Set.of("com", "net", "org", "edu", "gov", "io", "co", "in", "uk",
+            "de", "gmail", "googlemail", "yahoo", "hotmail", "outlook", "live", "icloud", "mail", "example");
+
+    private static final Comparator<EmployeeSearchHit> RANKING =
+            Comparator.comparingInt(EmployeeSearchHit::score).reversed().thenComparing(EmployeeSearchHit::id);
+
+    @Autowired
+    EmployeeService employeeService;
+
+    @Value("${employee.search.budget:5ms}")
+    Duration budget = Duration.ofMillis(5);
+
+    private final Map<Long, IndexedEmployee> employees = new ConcurrentHashMap<>();
+
+    //token -> (employee id -> field weight)
+    private final ConcurrentSkipListMap<String, Map<Long, Integer>> tokens = new ConcurrentSkipListMap<>();
+
+    //trigram -> employee ids
+    private final Map<String, Set<Long>> trigrams = new ConcurrentHashMap<>();
+
+    //Snapshot imports write around EmployeeService, so no change events arrive for their rows
+    @EventListener({ApplicationReadyEvent.class, EmployeesImportedEvent.class})
+    public void rebuild() {
+        employeeService.streamAllEmployees(this::index);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChange(EmployeeChangeEvent event) {
+        if (event.type() == EmployeeChangeEvent.Type.DELETED) {
+            remove(event.id());
+        } else {
+            index(event.employee());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanges(EmployeeChangesEvent event) {
+        event.changes().forEach(this::onEmployeeChange);
+    }
+
+    @Override
+    public EmployeeSearchResult search(String query, int limit) {
+        List<String> words = words(query);
+        if (words.isEmpty() || limit < 1) {
+            return new EmployeeSearchResult(List.of(), false);
+        }
+        long deadline = System.nanoTime() + budget.toNanos();
+        boolean partial = false;
+
+        //most selective (longest) word first, every further word can only shrink the candidate set
+        words.sort(Comparator.comparingInt(String::length).reversed());
+        Map<Long, Integer> scores = null;
+        for (String word : words) {
+            Map<Long, Integer> wordScores = new HashMap<>();
+            partial |= match(word, scores == null ? null : scores.keySet(), wordScores, deadline);
+            if (scores != null) {
+                for (Map.Entry<Long, Integer> score : wordScores.entrySet()) {
+                    score.setValue(score.getValue() + scores.get(score.getKey()));
+                }
+            }
+            scores = wordScores;
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+
+        //top limit hits only, the worst of them at the head of the queue
+        PriorityQueue<EmployeeSearchHit> top = new PriorityQueue<>(Math.min(limit, scores.size()) + 1, RANKING.reversed());
+        for (Map.Entry<Long, Integer> score : scores.entrySet()) {
+            if (top.size() == limit && !ranksAbove(score.getValue(), score.getKey(), top.peek())) {
+                continue;
+            }
+            IndexedEmployee employee = employees.get(score.getKey());
+            if (employee != null) {
+                top.add(new EmployeeSearchHit(employee.id(), employee.firstName(), employee.lastName(), employee.email(), score.getValue()));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        List<EmployeeSearchHit> hits = new ArrayList<>(top);
+        hits.sort(RANKING);
+        return new EmployeeSearchResult(hits, partial);
+    }
+
+    private static boolean ranksAbove(int score, Long id, EmployeeSearchHit hit) {
+        return score > hit.score() || score == hit.score() && id < hit.id();
+    }
+
+    //Collects the best score of one word per employee, restricted to candidates when given. Returns true if the
+    //budget ran out before all postings were read. The first DEADLINE_CHECK_INTERVAL postings are always scored, so a
+    //query that starts with the budget already spent (a cold JVM, a GC pause) still returns best-effort hits
+    private boolean match(String word, Set<Long> candidates, Map<Long, Integer> wordScores, long deadline) {
+        NavigableMap<String, Map<Long, Integer>> prefixed = tokens.subMap(word, true, word + Character.MAX_VALUE, false);
+        int scanned = 0;
+        for (Map.Entry<String, Map<Long, Integer>> token : prefixed.entrySet()) {
+            int bonus = token.getKey().equals(word) ? EXACT_BONUS : 1;
+            for (Map.Entry<Long, Integer> posting : token.getValue().entrySet()) {
+                if (++scanned % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                    return true;
+                }
+                if (candidates == null || candidates.contains(posting.getKey())) {
+                    wordScores.merge(posting.getKey(), posting.getValue() * bonus, Math::max);
+                }
+            }
+        }
+        if (!wordScores.isEmpty() || word.length() < 3) {
+            return false;
+        }
+
+        //no token starts with the word: look for it inside tokens, "ekha" finds "shekhar"
+        Set<Long> substringCandidates = candidates;
+        for (String trigram : trigrams(word)) {
+            Set<Long> ids = trigrams.getOrDefault(trigram, Set.of());
+            if (substringCandidates == null) {
+                substringCandidates = ids;
+            } else {
+                Set<Long> intersection = new HashSet<>();
+                for (Long id : substringCandidates) {
+                    if (ids.contains(id)) {
+                        intersection.add(id);
+                    }
+                }
+                substringCandidates = intersection;
+            }
+            if (substringCandidates.isEmpty()) {
+                return false;
+            }
+            //further trigrams only narrow the candidates down, the text check below gives the same hits without them
+            if (System.nanoTime() > deadline) {
+                break;
+            }
+        }
+        for (Long id : substringCandidates) {
+            if (++scanned % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                return true;
+            }
+            IndexedEmployee employee = employees.get(id);
+            if (employee != null && employee.text().contains(word)) {
+                wordScores.put(id, SUBSTRING_SCORE);
+            }
+        }
+        return false;
+    }
+
+    private synchronized void index(Employee employee) {
+        if (employee.getId() == null) {
+            return;
+        }
+        remove(employee.getId());
+        IndexedEmployee indexed = IndexedEmployee.of(employee);
+        employees.put(indexed.id(), indexed);
+        indexed.tokens().forEach((token, weight) -> tokens.computeIfAbsent(token, key -> new ConcurrentHashMap<>())
+                .put(indexed.id(), weight));
+        indexed.trigrams().forEach(trigram -> trigrams.computeIfAbsent(trigram, key -> ConcurrentHashMap.newKeySet())
+                .add(indexed.id()));
+    }
+
+    private synchronized void remove(Long id) {
+        IndexedEmployee indexed = employees.remove(id);
+        if (indexed == null) {
+            return;
+        }
+        indexed.tokens().keySet().forEach(token -> tokens.computeIfPresent(token, (key, postings) -> {
+            postings.remove(id);
+            return postings.isEmpty() ? null : postings;
+        }));
+        indexed.trigrams().forEach(trigram -> trigrams.computeIfPresent(trigram, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        }));
+    }
+
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text != null) {
+            for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+        return words;
+    }
+
+    static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private record IndexedEmployee(Long id, String firstName, String lastName, String email, String text,
+                                   Map<String, Integer> tokens, Set<String> trigrams) {
+
+        static IndexedEmployee of(Employee employee) {
+            Map<String, Integer> tokens = new HashMap<>();
+            words(employee.getFirstName()).forEach(word -> tokens.put(word, NAME_WEIGHT));
+            words(employee.getLastName()).forEach(word -> tokens.put(word, NAME_WEIGHT));
+            String email = employee.getEmail() == null ? "" : employee.getEmail();
+            int at = email.indexOf('@');
+            String localPart = at < 0 ? email : email.substring(0, at);
+            words(localPart).forEach(word -> tokens.put(word, NAME_WEIGHT));
+            //stop words are kept out of the substring text as well, "gmail" would find everyone through the trigrams
+            List<String> domain = at < 0 ? List.of() : words(email.substring(at + 1));
+            domain.removeIf(DOMAIN_STOP_WORDS::contains);
+            domain.forEach(word -> tokens.putIfAbsent(word, DOMAIN_WEIGHT));
+            String text = String.join(" ", Objects.toString(employee.getFirstName(), ""),
+                    Objects.toString(employee.getLastName(), ""), localPart, String.join(" ", domain)).toLowerCase(Locale.ROOT);
+            return new IndexedEmployee(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                    employee.getEmail(), text, Collections.unmodifiableMap(tokens), EmployeeSearchServiceImpl.trigrams(text));
+        }
+    }
+}
@@ -1,49 +1,328 @@
 package net.javaguides.springboot.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import net.javaguides.springboot.config.CacheConfig;
+import net.javaguides.springboot.config.EmployeeMetrics;
+import net.javaguides.springboot.dto.BulkCreateResult;
+import net.javaguides.springboot.dto.EmployeeSummary;
+import net.javaguides.springboot.dto.EmployeeVersion;
+import net.javaguides.springboot.event.EmployeeChangeEvent;
+import net.javaguides.springboot.event.EmployeeChangesEvent;
 import net.javaguides.springboot.exception.ResourceNotFoundException;
 import net.javaguides.springboot.model.Employee;
 import net.javaguides.springboot.repository.EmployeeRepository;
 import net.javaguides.springboot.service.EmployeeService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Profile("!offheap")
 public class EmployeeServiceImpl implements EmployeeService {
 
+    static final int DELETE_CHUNK_SIZE = 1000;
+    static final int FIND_CHUNK_SIZE = 1000;
+
     @Autowired
     EmployeeRepository employeeRepository;
 
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    //Batches concurrent cache misses of getEmployeeById into one IN query; not part of the slices that only load this service
+    @Autowired(required = false)
+    EmployeeLookupCoalescer lookupCoalescer;
+
+    //EmployeeChangeEvents keep in-process views such as the search index in step with the table
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    //No lookup before the insert - the unique index on email rejects duplicates, also between concurrent requests.
+    //Transactional so that listeners of the change event (the change log) write in the same transaction as the insert
     @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "save"}, histogram = true)
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.EMPLOYEES_BY_ID, key = "#result.id")
     public Employee saveEmployee(Employee employee) {
+        employee.setVersion(null);
+        try {
+            Employee savedEmployee = employeeRepository.saveAndFlush(employee);
+            eventPublisher.publishEvent(EmployeeChangeEvent.saved(savedEmployee));
+            return savedEmployee;
+        } catch (DataIntegrityViolationException exception) {
+            if (isDuplicateEmail(exception)) {
+                meterRegistry.counter(EmployeeMetrics.DUPLICATE_EMAILS, "operation", "save").increment();
+                throw new ResourceNotFoundException("Employee already Exists with this email :" + employee.getEmail(), exception);
+            }
+            throw exception;
+        }
+    }
+
+    //One IN query for the duplicate check of the whole chunk, then the inserts go out as JDBC batches on commit
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "save_bulk"}, histogram = true)
+    @Transactional
+    public List<BulkCreateResult> saveEmployees(List<Employee> employees) {
+        Set<String> takenEmails = employeeRepository.findExistingEmails(employees.stream()
+                .map(Employee::getEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
 
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
-        if(savedEmployee.isPresent()){
-            throw new ResourceNotFoundException("Employee already Exists with this email :" + employee.getEmail());
+        List<BulkCreateResult> results = new ArrayList<>(employees.size());
+        List<Employee> toInsert = new ArrayList<>(employees.size());
+        List<Integer> insertIndexes = new ArrayList<>(employees.size());
+        Set<String> chunkEmails = new HashSet<>();
+        int duplicates = 0;
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+            if (employee.getFirstName() == null || employee.getLastName() == null || employee.getEmail() == null) {
+                results.add(BulkCreateResult.invalid(i, employee.getEmail(), "firstName, lastName and email are required"));
+            } else if (takenEmails.contains(employee.getEmail()) || !chunkEmails.add(employee.getEmail())) {
+                results.add(BulkCreateResult.duplicate(i, employee.getEmail()));
+                duplicates++;
+            } else {
+                employee.setId(null);
+                employee.setVersion(null);
+                toInsert.add(employee);
+                insertIndexes.add(i);
+                results.add(null);
+            }
         }
 
-        return employeeRepository.save(employee);
+        if (duplicates > 0) {
+            meterRegistry.counter(EmployeeMetrics.DUPLICATE_EMAILS, "operation", "save_bulk").increment(duplicates);
+        }
+
+        List<Employee> savedEmployees = employeeRepository.saveAll(toInsert);
+        List<EmployeeChangeEvent> changes = new ArrayList<>(savedEmployees.size());
+        for (int i = 0; i < savedEmployees.size(); i++) {
+            Employee savedEmployee = savedEmployees.get(i);
+            int index = insertIndexes.get(i);
+            results.set(index, BulkCreateResult.created(index, savedEmployee.getId(), savedEmployee.getEmail()));
+            evict(CacheConfig.EMPLOYEES_BY_ID, savedEmployee.getId());
+            changes.add(EmployeeChangeEvent.saved(savedEmployee));
+        }
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new EmployeeChangesEvent(changes));
+        }
+        return results;
     }
 
+    //Read-only: Hibernate skips the dirty-checking snapshots and the flush on commit, and the connection is returned
+    //to the pool when the method returns rather than when the response has been written (open-in-view is off)
     @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "list"}, histogram = true)
+    @Transactional(readOnly = true)
     public List<Employee> getAllEmployees() {
         return employeeRepository.findAll();
     }
 
     @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "list"}, histogram = true)
+    @Transactional(readOnly = true)
+    public List<Employee> getEmployeesAfter(long afterId, int limit) {
+        return employeeRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+
+    //Projections for listing screens - no managed entities, so no dirty-checking snapshots and no flush on commit
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "list"}, histogram = true)
+    @Transactional(readOnly = true)
+    public List<EmployeeSummary> getEmployeeSummariesAfter(long afterId, int limit) {
+        return employeeRepository.findSummariesByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "list"}, histogram = true)
+    @Transactional(readOnly = true)
+    public List<EmployeeVersion> getEmployeeVersionsAfter(long afterId, int limit) {
+        return employeeRepository.findVersionsByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "list"}, histogram = true)
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getEmployeeFieldsAfter(Set<String> fields, long afterId, int limit) {
+        return employeeRepository.findFieldsByIdGreaterThan(fields, afterId, limit);
+    }
+
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "stream"}, histogram = true)
+    @Transactional(readOnly = true)
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        try (Stream<Employee> employees = employeeRepository.streamAllOrderById()) {
+            employees.forEach(employee -> {
+                consumer.accept(employee);
+                //detach once written so the persistence context does not grow with the table
+                entityManager.detach(employee);
+            });
+        }
+    }
+
+    //No transaction of its own: a coalesced miss is loaded on another thread, and holding a connection here while
+    //waiting for it would only take one away from the pool
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "get"}, histogram = true)
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES_BY_ID, key = "#id")
     public Optional<Employee> getEmployeeById(Long id) {
-        return employeeRepository.findById(id);
+        return lookupCoalescer != null ? lookupCoalescer.load(id) : employeeRepository.findById(id);
+    }
+
+    //Employees already in the by-id cache are served from it, the rest is read with one IN query per chunk and
+    //cached, misses included. The result follows the order of ids, without duplicates and ids that do not exist.
+    //Like getEmployeeById no transaction around it, so a request answered from the cache never takes a connection
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "get_batch"}, histogram = true)
+    public List<Employee> getEmployeesByIds(Collection<Long> ids) {
+        Cache cache = cacheManager.getCache(CacheConfig.EMPLOYEES_BY_ID);
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        Map<Long, Employee> employees = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Cache.ValueWrapper cached = cache != null ? cache.get(id) : null;
+            if (cached == null) {
+                missingIds.add(id);
+            } else if (cached.get() instanceof Employee employee) {
+                employees.put(id, employee);
+            }
+        }
+        for (int from = 0; from < missingIds.size(); from += FIND_CHUNK_SIZE) {
+            List<Long> chunk = missingIds.subList(from, Math.min(from + FIND_CHUNK_SIZE, missingIds.size()));
+            employeeRepository.findAllById(chunk).forEach(employee -> employees.put(employee.getId(), employee));
+            if (cache != null) {
+                chunk.forEach(id -> cache.put(id, employees.get(id)));
+            }
+        }
+        return distinctIds.stream().map(employees::get).filter(Objects::nonNull).toList();
+    }
+
+    //One UPDATE statement instead of load + merge. Zero rows means the id does not exist or, when the caller sent
+    //a version, that someone else updated the row first - only then is existence checked to tell the two apart
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "update"}, histogram = true)
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_ID, key = "#id")
+    public Optional<Employee> updateEmployee(Long id, Employee updatedEmployee) {
+        int updatedRows = employeeRepository.updateEmployee(id, updatedEmployee.getFirstName(),
+                updatedEmployee.getLastName(), updatedEmployee.getEmail(), updatedEmployee.getVersion());
+        if (updatedRows == 0) {
+            if (updatedEmployee.getVersion() != null && employeeRepository.existsById(id)) {
+                throw new ObjectOptimisticLockingFailureException(Employee.class, id);
+            }
+            return Optional.empty();
+        }
+        //without an expected version the new one is not known here, and the client needs it for its next If-Match
+        Employee employee = Employee.builder()
+                .id(id)
+                .firstName(updatedEmployee.getFirstName())
+                .lastName(updatedEmployee.getLastName())
+                .email(updatedEmployee.getEmail())
+                .version(updatedEmployee.getVersion() != null ? updatedEmployee.getVersion() + 1
+                        : employeeRepository.findVersionById(id))
+                .build();
+        eventPublisher.publishEvent(EmployeeChangeEvent.saved(employee));
+        return Optional.of(employee);
     }
 
     @Override
-    public Employee updateEmployee(Employee updatedEmployee) {
-        return employeeRepository.save(updatedEmployee);
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "delete"}, histogram = true)
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_ID, key = "#id")
+    public boolean deleteEmployee(Long id) {
+        if (employeeRepository.deleteEmployeeById(id) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(EmployeeChangeEvent.deleted(id));
+        return true;
+    }
+
+    //Same as updateEmployee: zero rows with an expected version is a conflict if the row is still there
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "delete"}, histogram = true)
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_ID, key = "#id")
+    public boolean deleteEmployee(Long id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return deleteEmployee(id);
+        }
+        if (employeeRepository.deleteEmployeeByIdAndVersion(id, expectedVersion) == 0) {
+            if (employeeRepository.existsById(id)) {
+                throw new ObjectOptimisticLockingFailureException(Employee.class, id);
+            }
+            return false;
+        }
+        eventPublisher.publishEvent(EmployeeChangeEvent.deleted(id));
+        return true;
     }
 
+    //One DELETE ... IN statement per chunk of ids, so a large offboarding batch does not become a huge IN list.
+    //The ids that exist are locked first: only rows actually removed are evicted and published as deleted
     @Override
-    public void deleteEmployee(Long id) {
-        employeeRepository.deleteById(id);
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "delete"}, histogram = true)
+    @Transactional
+    public int deleteEmployees(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        int deletedRows = 0;
+        for (int from = 0; from < distinctIds.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, distinctIds.size()));
+            List<Long> existingIds = employeeRepository.lockExistingIds(chunk);
+            if (existingIds.isEmpty()) {
+                continue;
+            }
+            deletedRows += employeeRepository.deleteEmployeesByIds(existingIds);
+            existingIds.forEach(id -> evict(CacheConfig.EMPLOYEES_BY_ID, id));
+            eventPublisher.publishEvent(new EmployeeChangesEvent(existingIds.stream().map(EmployeeChangeEvent::deleted).toList()));
+        }
+        return deletedRows;
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    //Dialects report the constraint name differently (H2 appends the index details), so match on the name only
+    private static boolean isDuplicateEmail(DataIntegrityViolationException exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Employee.EMAIL_UNIQUE_CONSTRAINT);
+            }
+        }
+        return false;
     }
 }
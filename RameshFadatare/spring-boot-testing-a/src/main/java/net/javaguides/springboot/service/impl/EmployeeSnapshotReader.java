@@ -0,0 +1,138 @@
+package net.javaguides.springboot.service.impl;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+//Reads the format written by EmployeeSnapshotWriter row by row into reusable buffers
+final class EmployeeSnapshotReader {
+
+    private final ReadableByteChannel channel;
+    private final Inflater inflater;
+    private final ByteBuffer input;
+    private final ByteBuffer buffer = ByteBuffer.allocate(EmployeeSnapshotWriter.BUFFER_SIZE).flip();
+    private final byte[] stringBytes = new byte[0xFFFF];
+    private long bytesRead;
+
+    //current row, valid after next() returned true
+    long id;
+    long version;
+    String firstName;
+    String lastName;
+    String email;
+
+    EmployeeSnapshotReader(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(EmployeeSnapshotWriter.MAGIC.length + 2);
+        while (header.hasRemaining()) {
+            if (read(header) < 0) {
+                throw new IOException("Not an employee snapshot: file too short");
+            }
+        }
+        header.flip();
+        byte[] magic = new byte[EmployeeSnapshotWriter.MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, EmployeeSnapshotWriter.MAGIC)) {
+            throw new IOException("Not an employee snapshot");
+        }
+        byte formatVersion = header.get();
+        if (formatVersion != EmployeeSnapshotWriter.FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot format version " + formatVersion);
+        }
+        boolean compressed = (header.get() & EmployeeSnapshotWriter.FLAG_DEFLATE) != 0;
+        this.inflater = compressed ? new Inflater(true) : null;
+        this.input = compressed ? ByteBuffer.allocateDirect(EmployeeSnapshotWriter.BUFFER_SIZE).flip() : null;
+    }
+
+    //Advances to the next row; false at the end marker, after checking the row count against it
+    boolean next(long rowsSoFar) throws IOException {
+        ensure(1);
+        byte tag = buffer.get();
+        if (tag == EmployeeSnapshotWriter.END) {
+            ensure(Long.BYTES);
+            long rows = buffer.getLong();
+            if (rows != rowsSoFar) {
+                throw new IOException("Snapshot is corrupt: " + rowsSoFar + " rows read, " + rows + " expected");
+            }
+            if (inflater != null) {
+                inflater.end();
+            }
+            return false;
+        }
+        if (tag != EmployeeSnapshotWriter.ROW) {
+            throw new IOException("Snapshot is corrupt: unexpected record type " + tag);
+        }
+        ensure(2 * Long.BYTES);
+        id = buffer.getLong();
+        version = buffer.getLong();
+        firstName = readString();
+        lastName = readString();
+        email = readString();
+        return true;
+    }
+
+    long bytesRead() {
+        return bytesRead;
+    }
+
+    private String readString() throws IOException {
+        ensure(Short.BYTES);
+        int length = Short.toUnsignedInt(buffer.getShort());
+        ensure(length);
+        buffer.get(stringBytes, 0, length);
+        return new String(stringBytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        buffer.compact();
+        try {
+            while (buffer.position() < bytes) {
+                if (!fill()) {
+                    throw new EOFException("Snapshot is truncated");
+                }
+            }
+        } finally {
+            buffer.flip();
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (inflater == null) {
+            return read(buffer) >= 0;
+        }
+        if (inflater.finished()) {
+            return false;
+        }
+        if (inflater.needsInput()) {
+            input.clear();
+            int read = read(input);
+            input.flip();
+            if (read < 0) {
+                return false;
+            }
+            inflater.setInput(input);
+        }
+        try {
+            inflater.inflate(buffer);
+        } catch (DataFormatException e) {
+            throw new IOException("Snapshot is corrupt", e);
+        }
+        return true;
+    }
+
+    private int read(ByteBuffer target) throws IOException {
+        int read = channel.read(target);
+        if (read > 0) {
+            bytesRead += read;
+        }
+        return read;
+    }
+}
@@ -0,0 +1,149 @@
+package net.javaguides.springboot.service.impl;
+
+import jakarta.persistence.EntityManagerFactory;
+import net.javaguides.springboot.dto.SnapshotResult;
+import net.javaguides.springboot.event.EmployeesImportedEvent;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeSnapshotService;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+//Bulk copy of the employees table for seeding environments and backups. Rows go through JDBC only - no entities,
+//no persistence context - so both directions run in constant memory regardless of the table size.
+@Service
+@Profile("!reactive & !offheap")
+public class EmployeeSnapshotServiceImpl implements EmployeeSnapshotService {
+
+    static final String SELECT_ALL = "select id, version, first_name, last_name, email from employees order by id";
+    static final String INSERT = "insert into employees (id, version, first_name, last_name, email) values (?, ?, ?, ?, ?)";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Value("${employee.snapshot.fetch-size:1000}")
+    int fetchSize = 1000;
+
+    @Value("${employee.snapshot.batch-size:1000}")
+    int batchSize = 1000;
+
+    //Read-only transaction: one consistent view of the table (InnoDB snapshot) while the cursor is open.
+    //With useCursorFetch=true MySQL sends fetchSize rows at a time instead of the whole result set
+    @Override
+    @Transactional(readOnly = true)
+    public SnapshotResult exportSnapshot(WritableByteChannel out, boolean compress) throws IOException {
+        long start = System.nanoTime();
+        EmployeeSnapshotWriter writer = new EmployeeSnapshotWriter(out, compress);
+        long[] rows = new long[1];
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SELECT_ALL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, resultSet -> {
+                try {
+                    writer.writeRow(resultSet.getLong(1), resultSet.getLong(2), resultSet.getString(3),
+                            resultSet.getString(4), resultSet.getString(5));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        long bytes = writer.finish(rows[0]);
+        return SnapshotResult.of(rows[0], bytes, System.nanoTime() - start);
+    }
+
+    //Inserts in JDBC batches of batchSize, each committed on its own, so a failed import leaves the rows of the
+    //batches before it in place. Ids are kept as exported; a snapshot is meant to be loaded into an empty table.
+    //Imported rows do not appear in the change log (GET /api/employees/changes) - mirrors have to resync.
+    //Whatever reached the table - even when a later batch or the stream fails - still advances the sequence, clears
+    //the caches and rebuilds the search index
+    @Override
+    public SnapshotResult importSnapshot(ReadableByteChannel in) throws IOException {
+        long start = System.nanoTime();
+        EmployeeSnapshotReader reader = new EmployeeSnapshotReader(in);
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        long rows = 0;
+        long maxId = 0;
+        //Rows handed to the database; a failed batch may still have committed part of its rows
+        long writtenRows = 0;
+        long writtenMaxId = 0;
+        try {
+            while (reader.next(rows)) {
+                batch.add(new Object[]{reader.id, reader.version, reader.firstName, reader.lastName, reader.email});
+                rows++;
+                maxId = Math.max(maxId, reader.id);
+                if (batch.size() == batchSize) {
+                    writtenRows = rows;
+                    writtenMaxId = maxId;
+                    jdbcTemplate.batchUpdate(INSERT, batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                writtenRows = rows;
+                writtenMaxId = maxId;
+                jdbcTemplate.batchUpdate(INSERT, batch);
+            }
+        } finally {
+            if (writtenRows > 0) {
+                advanceSequence(writtenMaxId);
+                evictCaches();
+                eventPublisher.publishEvent(new EmployeesImportedEvent(writtenRows));
+            }
+        }
+        return SnapshotResult.of(rows, reader.bytesRead(), System.nanoTime() - start);
+    }
+
+    //The next value read from employees_seq reserves (value - allocation size, value], so it has to be at least
+    //maxId + allocation size for new ids to start above the imported ones. The sequence is never moved backwards
+    private void advanceSequence(long maxId) {
+        long next = maxId + Employee.ID_ALLOCATION_SIZE;
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        //MySQL has no sequences, Hibernate emulates employees_seq there with a one row table
+        if ("MySQL".equalsIgnoreCase(database)) {
+            jdbcTemplate.update("update employees_seq set next_val = greatest(next_val, ?)", next);
+            return;
+        }
+        Long current = jdbcTemplate.queryForObject("select next value for employees_seq", Long.class);
+        if (current != null && current < next) {
+            jdbcTemplate.execute("alter sequence employees_seq restart with " + next);
+        }
+    }
+
+    //Rows written with plain JDBC are invisible to both cache layers, and cached misses or query results would hide them
+    private void evictCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+}
@@ -0,0 +1,110 @@
+package net.javaguides.springboot.service.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+
+//Snapshot file layout, all numbers big-endian:
+//  header   "EMPS", format version (1 byte), flags (1 byte, bit 0 = body is raw DEFLATE)
+//  body     per row: 1, id (8), version (8), first name, last name, email (each u16 length + UTF-8)
+//           end: 0, row count (8)
+//Rows are encoded into one reusable buffer and drained to the channel (through the deflater) when it fills up,
+//so memory use does not depend on the number of rows.
+final class EmployeeSnapshotWriter {
+
+    static final byte[] MAGIC = {'E', 'M', 'P', 'S'};
+    static final byte FORMAT_VERSION = 1;
+    static final byte FLAG_DEFLATE = 1;
+    static final byte ROW = 1;
+    static final byte END = 0;
+    static final int BUFFER_SIZE = 256 * 1024;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final WritableByteChannel channel;
+    private final Deflater deflater;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer compressed;
+    private long bytesWritten;
+
+    EmployeeSnapshotWriter(WritableByteChannel channel, boolean compress) throws IOException {
+        this.channel = channel;
+        this.deflater = compress ? new Deflater(Deflater.BEST_SPEED, true) : null;
+        this.compressed = compress ? ByteBuffer.allocateDirect(BUFFER_SIZE) : null;
+        ByteBuffer header = ByteBuffer.allocate(MAGIC.length + 2)
+                .put(MAGIC)
+                .put(FORMAT_VERSION)
+                .put(compress ? FLAG_DEFLATE : 0)
+                .flip();
+        write(header);
+    }
+
+    void writeRow(long id, long version, String firstName, String lastName, String email) throws IOException {
+        byte[] first = firstName.getBytes(StandardCharsets.UTF_8);
+        byte[] last = lastName.getBytes(StandardCharsets.UTF_8);
+        byte[] mail = email.getBytes(StandardCharsets.UTF_8);
+        ensureRoom(1 + 2 * Long.BYTES + 3 * Short.BYTES + first.length + last.length + mail.length);
+        buffer.put(ROW).putLong(id).putLong(version);
+        putString(first);
+        putString(last);
+        putString(mail);
+    }
+
+    //Writes the end marker and flushes everything; returns the number of bytes that went to the channel
+    long finish(long rows) throws IOException {
+        ensureRoom(1 + Long.BYTES);
+        buffer.put(END).putLong(rows);
+        drain();
+        if (deflater != null) {
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate();
+            }
+            deflater.end();
+        }
+        return bytesWritten;
+    }
+
+    private void putString(byte[] bytes) {
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Value longer than 65535 bytes");
+        }
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private void ensureRoom(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        if (deflater == null) {
+            write(buffer);
+        } else {
+            deflater.setInput(buffer);
+            while (!deflater.needsInput()) {
+                deflate();
+            }
+            //the deflater keeps a reference to its input buffer, which is about to be reused
+            deflater.setInput(EMPTY);
+        }
+        buffer.clear();
+    }
+
+    private void deflate() throws IOException {
+        deflater.deflate(compressed);
+        compressed.flip();
+        write(compressed);
+        compressed.clear();
+    }
+
+    private void write(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            bytesWritten += channel.write(source);
+        }
+    }
+}
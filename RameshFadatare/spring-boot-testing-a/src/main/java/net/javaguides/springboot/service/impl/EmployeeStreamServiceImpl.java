@@ -0,0 +1,100 @@
+package net.javaguides.springboot.service.impl;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import net.javaguides.springboot.config.EmployeeMetrics;
+import net.javaguides.springboot.service.EmployeeStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+//Employees as one JSON array written from the JDBC cursor by a single JsonGenerator per request: no entities, no
+//persistence context and no List in between, so the memory a request holds is the fetch window plus the generator's
+//buffer however many rows there are. The generator's buffers come from Jackson's recycler pool and the field names
+//are encoded once, so per row only the values are converted.
+@Service
+@Profile("!reactive & !offheap")
+public class EmployeeStreamServiceImpl implements EmployeeStreamService {
+
+    //In the order Jackson serializes Employee, so both representations are byte for byte the same
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString FIRST_NAME = new SerializedString("firstName");
+    private static final SerializableString LAST_NAME = new SerializedString("lastName");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString VERSION = new SerializedString("version");
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${employee.stream.fetch-size:1000}")
+    int fetchSize = 1000;
+
+    //The generator is flushed once per fetch, so the first rows leave while later ones are still being read and
+    //the servlet container sends the response chunked. A failure after the first flush leaves the array unterminated
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "stream_json"}, histogram = true)
+    @Transactional(readOnly = true)
+    public long writeJsonArray(OutputStream out) throws IOException {
+        JsonFactory jsonFactory = objectMapper.getFactory();
+        long[] rows = new long[1];
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            //the container owns the response stream, and an array cut short by a failure must not be closed as if complete
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.writeStartArray();
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EmployeeSnapshotServiceImpl.SELECT_ALL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, resultSet -> {
+                try {
+                    writeEmployee(generator, resultSet);
+                    if (++rows[0] % fetchSize == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rows[0];
+    }
+
+    //Columns as selected by EmployeeSnapshotServiceImpl.SELECT_ALL: id, version, first_name, last_name, email
+    private static void writeEmployee(JsonGenerator generator, ResultSet resultSet) throws IOException, SQLException {
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        generator.writeNumber(resultSet.getLong(1));
+        generator.writeFieldName(FIRST_NAME);
+        generator.writeString(resultSet.getString(3));
+        generator.writeFieldName(LAST_NAME);
+        generator.writeString(resultSet.getString(4));
+        generator.writeFieldName(EMAIL);
+        generator.writeString(resultSet.getString(5));
+        generator.writeFieldName(VERSION);
+        generator.writeNumber(resultSet.getLong(2));
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,425 @@
+package net.javaguides.springboot.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.javaguides.springboot.config.EmployeeMetrics;
+import net.javaguides.springboot.dto.BulkCreateResult;
+import net.javaguides.springboot.dto.EmployeeWriteStatus;
+import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.exception.WriteQueueFullException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.service.EmployeeWriteBehindService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+//Write-behind mode (employee.write-behind.enabled=true): creates and updates are acknowledged once queued and
+//committed by one flusher thread in batches, one transaction per batch, so an HR sync burst holds a single
+//connection instead of one per request. Several queued updates of the same employee collapse into the last one.
+//A batch that fails on a transient database error is retried as a whole after a backoff; any other failure
+//replays the batch one write per transaction so only the offending writes end up FAILED.
+//The queue lives in memory: writes still queued when the process dies are lost, stop() drains it on shutdown.
+@Service
+@Profile("!reactive & !offheap")
+@ConditionalOnProperty(name = "employee.write-behind.enabled", havingValue = "true")
+public class EmployeeWriteBehindServiceImpl implements EmployeeWriteBehindService, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeWriteBehindServiceImpl.class);
+
+    @Autowired
+    EmployeeService employeeService;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${employee.write-behind.capacity:10000}")
+    int capacity = 10_000;
+
+    @Value("${employee.write-behind.batch-size:200}")
+    int batchSize = 200;
+
+    //how long the flusher lets a batch fill up after the first write arrives
+    @Value("${employee.write-behind.linger:20ms}")
+    Duration linger = Duration.ofMillis(20);
+
+    //how long a submit waits for room in a full queue before it is rejected with 503
+    @Value("${employee.write-behind.offer-timeout:100ms}")
+    Duration offerTimeout = Duration.ofMillis(100);
+
+    @Value("${employee.write-behind.max-attempts:5}")
+    int maxAttempts = 5;
+
+    @Value("${employee.write-behind.retry-backoff:500ms}")
+    Duration retryBackoff = Duration.ofMillis(500);
+
+    @Value("${employee.write-behind.shutdown-timeout:30s}")
+    Duration shutdownTimeout = Duration.ofSeconds(30);
+
+    private final Cache<String, EmployeeWriteStatus> statuses = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final ArrayDeque<PendingWrite> queue = new ArrayDeque<>();
+
+    //queued, not yet flushing updates by employee id - the target of coalescing
+    private final Map<Long, PendingWrite> queuedUpdates = new HashMap<>();
+
+    private volatile boolean running;
+    private Thread flusher;
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public EmployeeWriteStatus submitCreate(Employee employee) {
+        String trackingId = UUID.randomUUID().toString();
+        EmployeeWriteStatus status = EmployeeWriteStatus.queued(trackingId, null);
+        //recorded before the write is queued so the flusher can never be overtaken by it
+        statuses.put(trackingId, status);
+        lock.lock();
+        try {
+            awaitCapacity(trackingId);
+            queue.addLast(new PendingWrite(null, employee, trackingId));
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        return status;
+    }
+
+    //Coalescing means last writer wins for updates still queued: the earlier ones are never executed on their own,
+    //their tracking ids report the outcome of the update that replaced them
+    @Override
+    public EmployeeWriteStatus submitUpdate(Long id, Employee employee) {
+        String trackingId = UUID.randomUUID().toString();
+        EmployeeWriteStatus status = EmployeeWriteStatus.queued(trackingId, id);
+        statuses.put(trackingId, status);
+        lock.lock();
+        try {
+            PendingWrite queued = queuedUpdates.get(id);
+            if (queued != null) {
+                queued.employee = employee;
+                queued.trackingIds.add(trackingId);
+                meterRegistry.counter(EmployeeMetrics.WRITES, "outcome", "coalesced").increment();
+                return status;
+            }
+            awaitCapacity(trackingId);
+            PendingWrite update = new PendingWrite(id, employee, trackingId);
+            queue.addLast(update);
+            queuedUpdates.put(id, update);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        return status;
+    }
+
+    @Override
+    public Optional<EmployeeWriteStatus> getStatus(String trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    //Back-pressure: callers block for at most offerTimeout, then get a 503 instead of growing the queue
+    private void awaitCapacity(String trackingId) {
+        long nanos = offerTimeout.toNanos();
+        try {
+            while (running && queue.size() >= capacity && nanos > 0) {
+                nanos = notFull.awaitNanos(nanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!running || queue.size() >= capacity) {
+            statuses.invalidate(trackingId);
+            meterRegistry.counter(EmployeeMetrics.WRITES, "outcome", "rejected").increment();
+            throw new WriteQueueFullException(running ? "Write queue is full, retry later" : "Write queue is shutting down");
+        }
+    }
+
+    @Override
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder(EmployeeMetrics.WRITE_QUEUE_DEPTH, this, EmployeeWriteBehindServiceImpl::queueDepth)
+                .register(meterRegistry);
+        running = true;
+        flusher = new Thread(this::flushLoop, "employee-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int lost = queueDepth();
+        if (lost > 0) {
+            log.warn("Write-behind queue not drained within {}, {} writes were not committed", shutdownTimeout, lost);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    //Started before and stopped after the web server, so every accepted request finds a running flusher
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    int queueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingWrite> batch;
+        while ((batch = takeBatch()) != null) {
+            flush(batch);
+        }
+    }
+
+    //Blocks for the first write, lingers so a burst ends up in one batch, returns null once stopped and drained
+    private List<PendingWrite> takeBatch() {
+        lock.lock();
+        try {
+            while (queue.isEmpty()) {
+                if (!running) {
+                    return null;
+                }
+                notEmpty.awaitUninterruptibly();
+            }
+            long nanos = linger.toNanos();
+            while (running && queue.size() < batchSize && nanos > 0) {
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            List<PendingWrite> batch = new ArrayList<>(Math.min(batchSize, queue.size()));
+            while (batch.size() < batchSize && !queue.isEmpty()) {
+                PendingWrite write = queue.pollFirst();
+                if (write.employeeId != null) {
+                    queuedUpdates.remove(write.employeeId);
+                }
+                batch.add(write);
+            }
+            notFull.signalAll();
+            return batch;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void flush(List<PendingWrite> batch) {
+        long start = System.nanoTime();
+        String outcome;
+        try {
+            List<EmployeeWriteStatus> results = transactionTemplate.execute(tx -> writeBatch(batch));
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i), results.get(i));
+            }
+            outcome = "committed";
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                log.warn("Write-behind batch of {} failed, retrying: {}", batch.size(), e.toString());
+                //every retry goes to the head of the queue, last write first keeps the batch in submission order
+                batch.reversed().forEach(write -> retry(write, e));
+                backOff();
+                outcome = "retried";
+            } else {
+                batch.forEach(this::writeAlone);
+                outcome = "isolated";
+            }
+        }
+        Timer.builder(EmployeeMetrics.WRITE_FLUSH)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    //Creates go through the bulk path (one IN query for duplicates, batched inserts), updates are single UPDATEs,
+    //all joining the batch transaction
+    private List<EmployeeWriteStatus> writeBatch(List<PendingWrite> batch) {
+        List<Employee> creates = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            if (write.employeeId == null) {
+                creates.add(write.copy());
+            }
+        }
+        List<BulkCreateResult> createResults = creates.isEmpty() ? List.of() : employeeService.saveEmployees(creates);
+
+        List<EmployeeWriteStatus> results = new ArrayList<>(batch.size());
+        int createIndex = 0;
+        for (PendingWrite write : batch) {
+            if (write.employeeId == null) {
+                BulkCreateResult result = createResults.get(createIndex++);
+                results.add(result.status() == BulkCreateResult.Status.CREATED
+                        ? EmployeeWriteStatus.committed(null, result.id())
+                        : EmployeeWriteStatus.failed(null, null, result.message()));
+            } else {
+                results.add(update(write));
+            }
+        }
+        return results;
+    }
+
+    private void writeAlone(PendingWrite write) {
+        try {
+            complete(write, write.employeeId == null
+                    ? EmployeeWriteStatus.committed(null, employeeService.saveEmployee(write.copy()).getId())
+                    : update(write));
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                retry(write, e);
+            } else {
+                complete(write, EmployeeWriteStatus.failed(null, write.employeeId, failureMessage(e)));
+            }
+        }
+    }
+
+    private EmployeeWriteStatus update(PendingWrite write) {
+        return employeeService.updateEmployee(write.employeeId, write.copy())
+                .map(employee -> EmployeeWriteStatus.committed(null, employee.getId()))
+                .orElseGet(() -> EmployeeWriteStatus.failed(null, write.employeeId, "Employee not found"));
+    }
+
+    private void complete(PendingWrite write, EmployeeWriteStatus result) {
+        for (String trackingId : write.trackingIds) {
+            statuses.put(trackingId, new EmployeeWriteStatus(trackingId, result.state(), result.employeeId(), result.message()));
+        }
+        String outcome = result.state() == EmployeeWriteStatus.State.COMMITTED ? "committed" : "failed";
+        meterRegistry.counter(EmployeeMetrics.WRITES, "outcome", outcome).increment(write.trackingIds.size());
+    }
+
+    //Back to the head of the queue, ahead of newer writes; a newer queued update of the same employee wins
+    //and inherits the tracking ids
+    private void retry(PendingWrite write, RuntimeException cause) {
+        if (++write.attempts >= maxAttempts) {
+            complete(write, EmployeeWriteStatus.failed(null, write.employeeId,
+                    "Gave up after " + write.attempts + " attempts: " + failureMessage(cause)));
+            return;
+        }
+        lock.lock();
+        try {
+            PendingWrite newer = write.employeeId == null ? null : queuedUpdates.get(write.employeeId);
+            if (newer != null) {
+                newer.trackingIds.addAll(write.trackingIds);
+            } else {
+                queue.addFirst(write);
+                if (write.employeeId != null) {
+                    queuedUpdates.put(write.employeeId, write);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void backOff() {
+        try {
+            Thread.sleep(retryBackoff.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //Worth retrying: no connection, a timeout or a deadlock victim. A stale version stays stale, so optimistic
+    //locking failures (also a TransientDataAccessException) are final
+    static boolean isTransient(Throwable exception) {
+        return !(exception instanceof OptimisticLockingFailureException)
+                && (exception instanceof TransientDataAccessException
+                || exception instanceof RecoverableDataAccessException
+                || exception instanceof CannotCreateTransactionException
+                || exception instanceof TransactionTimedOutException);
+    }
+
+    private static String failureMessage(RuntimeException exception) {
+        if (exception instanceof ResourceNotFoundException) {
+            return exception.getMessage();
+        }
+        if (exception instanceof OptimisticLockingFailureException) {
+            return "Employee was modified concurrently, reload and retry";
+        }
+        if (exception instanceof DataIntegrityViolationException) {
+            return "Employee conflicts with existing data";
+        }
+        return "Write failed: " + exception.getClass().getSimpleName();
+    }
+
+    static final class PendingWrite {
+
+        private final Long employeeId;
+        private final List<String> trackingIds = new ArrayList<>(1);
+        private Employee employee;
+        private int attempts;
+
+        PendingWrite(Long employeeId, Employee employee, String trackingId) {
+            this.employeeId = employeeId;
+            this.employee = employee;
+            this.trackingIds.add(trackingId);
+        }
+
+        //a fresh entity per attempt - a rolled back persist leaves its generated id behind on the instance
+        Employee copy() {
+            return Employee.builder()
+                    .id(employeeId)
+                    .firstName(employee.getFirstName())
+                    .lastName(employee.getLastName())
+                    .email(employee.getEmail())
+                    .version(employee.getVersion())
+                    .build();
+        }
+    }
+}
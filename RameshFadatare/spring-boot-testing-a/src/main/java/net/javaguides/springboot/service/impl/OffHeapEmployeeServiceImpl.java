@@ -0,0 +1,356 @@
+package net.javaguides.springboot.service.impl;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.javaguides.springboot.config.EmployeeMetrics;
+import net.javaguides.springboot.dto.BulkCreateResult;
+import net.javaguides.springboot.dto.EmployeeSummary;
+import net.javaguides.springboot.dto.EmployeeVersion;
+import net.javaguides.springboot.event.EmployeeChangeEvent;
+import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepositoryCustom;
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.service.EmployeeStreamService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+//EmployeeService of the offheap profile for read-heavy deployments: the employees live in an OffHeapEmployeeStore
+//in direct memory instead of MySQL, so a lookup is a hash probe plus decoding one record, and the heap only holds
+//what requests are working on - full collections no longer have to trace a cache of entities.
+//Durability is a snapshot file (the EmployeeSnapshotWriter format, so a GET /api/admin/employees/snapshot export of
+//the database can seed it): loaded on start, rewritten every snapshot-interval if anything changed and on shutdown.
+//Writes since the last snapshot are lost if the process dies. Change events are published like EmployeeServiceImpl
+//does, so the search index follows; the change log and the snapshot endpoints need the database and are not there.
+@Service
+@Profile("offheap")
+public class OffHeapEmployeeServiceImpl implements EmployeeService, EmployeeStreamService, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OffHeapEmployeeServiceImpl.class);
+
+    //employees copied out of the store per read lock when everything is streamed, so writers are not held up
+    static final int PAGE_SIZE = 1000;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    //empty keeps the employees in memory only
+    @Value("${employee.offheap.snapshot-file:}")
+    String snapshotFile = "";
+
+    @Value("${employee.offheap.snapshot-compress:true}")
+    boolean snapshotCompress = true;
+
+    //starting sizes; the store grows by copying, so sizing them for the expected table avoids copies on load
+    @Value("${employee.offheap.initial-size:16MB}")
+    DataSize initialSize = DataSize.ofMegabytes(16);
+
+    @Value("${employee.offheap.expected-employees:100000}")
+    int expectedEmployees = 100_000;
+
+    private volatile OffHeapEmployeeStore store;
+
+    private volatile boolean running;
+
+    //modification count of the store when the snapshot file was last written
+    private long snapshotModifications;
+
+    private final Object snapshotLock = new Object();
+
+    //A snapshot that cannot be read fails the start-up: starting empty would overwrite it with nothing on shutdown
+    @Override
+    public void start() {
+        OffHeapEmployeeStore newStore = new OffHeapEmployeeStore((int) initialSize.toBytes(), expectedEmployees);
+        if (!snapshotFile.isEmpty() && Files.exists(Path.of(snapshotFile))) {
+            long start = System.nanoTime();
+            try (FileChannel channel = FileChannel.open(Path.of(snapshotFile), StandardOpenOption.READ)) {
+                long rows = newStore.readSnapshot(channel);
+                log.info("Loaded {} employees from {} in {} ms", rows, snapshotFile, (System.nanoTime() - start) / 1_000_000);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot load employee snapshot " + snapshotFile, e);
+            }
+        }
+        store = newStore;
+        snapshotModifications = newStore.modifications();
+        Gauge.builder(EmployeeMetrics.OFFHEAP_BYTES, newStore, OffHeapEmployeeStore::usedBytes)
+                .tag("kind", "used")
+                .register(meterRegistry);
+        Gauge.builder(EmployeeMetrics.OFFHEAP_BYTES, newStore, OffHeapEmployeeStore::allocatedBytes)
+                .tag("kind", "allocated")
+                .register(meterRegistry);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        saveSnapshot();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    //Loaded before and saved after the web server, so no request sees an empty store or writes after the last save
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Scheduled(fixedDelayString = "${employee.offheap.snapshot-interval:1m}", initialDelayString = "${employee.offheap.snapshot-interval:1m}")
+    public void saveSnapshot() {
+        if (snapshotFile.isEmpty() || store == null) {
+            return;
+        }
+        synchronized (snapshotLock) {
+            if (store.modifications() == snapshotModifications) {
+                return;
+            }
+            //written next to the file and moved over it, so a crash mid-write leaves the previous snapshot intact
+            Path target = Path.of(snapshotFile).toAbsolutePath();
+            Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+            try {
+                long modifications;
+                try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    modifications = store.writeSnapshot(channel, snapshotCompress);
+                    channel.force(false);
+                }
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                snapshotModifications = modifications;
+            } catch (IOException e) {
+                log.warn("Cannot write employee snapshot {}", target, e);
+            }
+        }
+    }
+
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "save"}, histogram = true)
+    public Employee saveEmployee(Employee employee) {
+        try {
+            Employee savedEmployee = store.insert(employee.getFirstName(), employee.getLastName(), employee.getEmail());
+            eventPublisher.publishEvent(EmployeeChangeEvent.saved(savedEmployee));
+            return savedEmployee;
+        } catch (DuplicateKeyException exception) {
+            meterRegistry.counter(EmployeeMetrics.DUPLICATE_EMAILS, "operation", "save").increment();
+            throw new ResourceNotFoundException("Employee already Exists with this email :" + employee.getEmail(), exception);
+        }
+    }
+
+    //Row by row; unlike the JPA path a chunk is not all or nothing, every row is decided on its own
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "save_bulk"}, histogram = true)
+    public List<BulkCreateResult> saveEmployees(List<Employee> employees) {
+        List<BulkCreateResult> results = new ArrayList<>(employees.size());
+        int duplicates = 0;
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+            if (employee.getFirstName() == null || employee.getLastName() == null || employee.getEmail() == null) {
+                results.add(BulkCreateResult.invalid(i, employee.getEmail(), "firstName, lastName and email are required"));
+                continue;
+            }
+            try {
+                Employee savedEmployee = store.insert(employee.getFirstName(), employee.getLastName(), employee.getEmail());
+                results.add(BulkCreateResult.created(i, savedEmployee.getId(), savedEmployee.getEmail()));
+                eventPublisher.publishEvent(EmployeeChangeEvent.saved(savedEmployee));
+            } catch (DuplicateKeyException exception) {
+                results.add(BulkCreateResult.duplicate(i, employee.getEmail()));
+                duplicates++;
+            } catch (DataIntegrityViolationException exception) {
+                results.add(BulkCreateResult.invalid(i, employee.getEmail(), exception.getMessage()));
+            }
+        }
+        if (duplicates > 0) {
+            meterRegistry.counter(EmployeeMetrics.DUPLICATE_EMAILS, "operation", "save_bulk").increment(duplicates);
+        }
+        return results;
+    }
+
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "list"}, histogram = true)
+    public List<Employee> getAllEmployees() {
+        List<Employee> employees = new ArrayList<>(store.size());
+        streamAllEmployees(employees::add);
+        return employees;
+    }
+
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "list"}, histogram = true)
+    public List<Employee> getEmployeesAfter(long afterId, int limit) {
+        return store.readAfter(afterId, limit, OffHeapEmployeeStore.Row::toEmployee);
+    }
+
+    //Only the selected fields are decoded, the email of a summary row is never turned into a String
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "list"}, histogram = true)
+    public List<EmployeeSummary> getEmployeeSummariesAfter(long afterId, int limit) {
+        return store.readAfter(afterId, limit, row -> new EmployeeSummary(row.id(), row.firstName(), row.lastName()));
+    }
+
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "list"}, histogram = true)
+    public List<EmployeeVersion> getEmployeeVersionsAfter(long afterId, int limit) {
+        return store.readAfter(afterId, limit, row -> new EmployeeVersion(row.id(), row.version()));
+    }
+
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "list"}, histogram = true)
+    public List<Map<String, Object>> getEmployeeFieldsAfter(Set<String> fields, long afterId, int limit) {
+        for (String field : fields) {
+            if (!EmployeeRepositoryCustom.SELECTABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown employee field: " + field);
+            }
+        }
+        return store.readAfter(afterId, limit, row -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("id", row.id());
+            for (String field : fields) {
+                switch (field) {
+                    case "firstName" -> values.put(field, row.firstName());
+                    case "lastName" -> values.put(field, row.lastName());
+                    case "email" -> values.put(field, row.email());
+                    case "version" -> values.put(field, row.version());
+                    default -> {
+                    }
+                }
+            }
+            return values;
+        });
+    }
+
+    //Page by page, the consumer runs without the store's lock
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "stream"}, histogram = true)
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        long afterId = 0;
+        List<Employee> page;
+        do {
+            page = store.readAfter(afterId, PAGE_SIZE, OffHeapEmployeeStore.Row::toEmployee);
+            page.forEach(consumer);
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    //Flushed once per page; as with EmployeeStreamServiceImpl a failure after the first flush leaves the array unterminated
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "stream_json"}, histogram = true)
+    public long writeJsonArray(OutputStream out) throws IOException {
+        ObjectWriter employeeWriter = objectMapper.writerFor(Employee.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.writeStartArray();
+            long afterId = 0;
+            List<Employee> page;
+            do {
+                page = store.readAfter(afterId, PAGE_SIZE, OffHeapEmployeeStore.Row::toEmployee);
+                for (Employee employee : page) {
+                    employeeWriter.writeValue(generator, employee);
+                    afterId = employee.getId();
+                    rows++;
+                }
+                generator.flush();
+            } while (page.size() == PAGE_SIZE);
+            generator.writeEndArray();
+        }
+        return rows;
+    }
+
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "get"}, histogram = true)
+    public Optional<Employee> getEmployeeById(Long id) {
+        return Optional.ofNullable(store.get(id));
+    }
+
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "get_batch"}, histogram = true)
+    public List<Employee> getEmployeesByIds(Collection<Long> ids) {
+        return ids.stream().distinct().map(store::get).filter(Objects::nonNull).toList();
+    }
+
+    //A taken email surfaces as DataIntegrityViolationException (409) like the unique index does on the JPA path
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "update"}, histogram = true)
+    public Optional<Employee> updateEmployee(Long id, Employee updatedEmployee) {
+        Employee employee = store.update(id, updatedEmployee.getFirstName(), updatedEmployee.getLastName(),
+                updatedEmployee.getEmail(), updatedEmployee.getVersion());
+        if (employee == null) {
+            return Optional.empty();
+        }
+        eventPublisher.publishEvent(EmployeeChangeEvent.saved(employee));
+        return Optional.of(employee);
+    }
+
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "delete"}, histogram = true)
+    public boolean deleteEmployee(Long id) {
+        return deleteEmployee(id, null);
+    }
+
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "delete"}, histogram = true)
+    public boolean deleteEmployee(Long id, Long expectedVersion) {
+        if (!store.delete(id, expectedVersion)) {
+            return false;
+        }
+        eventPublisher.publishEvent(EmployeeChangeEvent.deleted(id));
+        return true;
+    }
+
+    @Override
+    @Timed(value = EmployeeMetrics.OPERATIONS, extraTags = {"operation", "delete"}, histogram = true)
+    public int deleteEmployees(Collection<Long> ids) {
+        int deleted = 0;
+        for (Long id : ids.stream().distinct().toList()) {
+            if (deleteEmployee(id, null)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+}
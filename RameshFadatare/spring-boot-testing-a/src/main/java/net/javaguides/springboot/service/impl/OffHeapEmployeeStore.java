@@ -0,0 +1,521 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.model.Employee;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//The employees table outside the Java heap. Records are appended to one direct buffer (the arena):
+//  id (8), version (8), first name, last name, email (each u16 length + UTF-8)
+//An update appends the new record and leaves the old one dead; dead records are dropped when the arena is full and
+//gets copied into a new one. Indexes, all OffHeapLongIndex:
+//  byId     id -> arena offset of the live record
+//  byEmail  hash of the email -> id, unique like uk_employees_email
+//  byName   hash of first name + last name -> id, what idx_employees_first_name_last_name is for
+//Hash hits are compared against the record, so collisions cost a comparison, never a wrong row. Ids are kept in
+//ascending order in a long array (deleted ones negated) for the keyset pages. The GC sees a handful of buffers
+//however many employees there are; an Employee object only exists while a caller holds it.
+//Readers share the read lock; absolute ByteBuffer reads do not move the buffer position, so they can run in parallel.
+final class OffHeapEmployeeStore {
+
+    private static final int RECORD_HEADER = 2 * Long.BYTES;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+    private static final int MAX_ARENA_BYTES = Integer.MAX_VALUE - 8;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private ByteBuffer arena;
+    private int top;
+    private long liveBytes;
+
+    private final OffHeapLongIndex byId;
+    private final OffHeapLongIndex byEmail;
+    private final OffHeapLongIndex byName;
+
+    private ByteBuffer ids;
+    private int idCount;
+    private int deletedIds;
+
+    private long nextId = 1;
+    private long modifications;
+
+    OffHeapEmployeeStore(int initialArenaBytes, int expectedEmployees) {
+        arena = ByteBuffer.allocateDirect(initialArenaBytes);
+        ids = ByteBuffer.allocateDirect(Math.max(16, expectedEmployees) * Long.BYTES);
+        byId = new OffHeapLongIndex(expectedEmployees);
+        byEmail = new OffHeapLongIndex(expectedEmployees);
+        byName = new OffHeapLongIndex(expectedEmployees);
+    }
+
+    //Mapping of the record at the current position; the strings are only decoded when asked for
+    interface RowMapper<T> {
+        T map(Row row);
+    }
+
+    final class Row {
+
+        private int address;
+
+        Row at(int address) {
+            this.address = address;
+            return this;
+        }
+
+        long id() {
+            return arena.getLong(address);
+        }
+
+        long version() {
+            return arena.getLong(address + Long.BYTES);
+        }
+
+        String firstName() {
+            return stringAt(address + RECORD_HEADER);
+        }
+
+        String lastName() {
+            return stringAt(skip(address + RECORD_HEADER));
+        }
+
+        String email() {
+            return stringAt(skip(skip(address + RECORD_HEADER)));
+        }
+
+        Employee toEmployee() {
+            int first = address + RECORD_HEADER;
+            int last = skip(first);
+            return Employee.builder()
+                    .id(id())
+                    .version(version())
+                    .firstName(stringAt(first))
+                    .lastName(stringAt(last))
+                    .email(stringAt(skip(last)))
+                    .build();
+        }
+    }
+
+    //Inserts with the next id and version 0; a taken email is rejected the way the unique index would reject it
+    Employee insert(String firstName, String lastName, String email) {
+        byte[] first = encode(firstName);
+        byte[] last = encode(lastName);
+        byte[] mail = encode(email);
+        lock.writeLock().lock();
+        try {
+            if (findAddressByEmail(mail) >= 0) {
+                throw duplicateEmail(email);
+            }
+            long id = nextId++;
+            append(id, 0, first, last, mail);
+            appendId(id);
+            byEmail.put(hash(mail), id);
+            byName.put(hash(first, last), id);
+            modifications++;
+            return new Row().at((int) byId.get(id)).toEmployee();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Employee get(long id) {
+        lock.readLock().lock();
+        try {
+            long address = byId.get(id);
+            return address == OffHeapLongIndex.NONE ? null : new Row().at((int) address).toEmployee();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Employee findByEmail(String email) {
+        byte[] mail = encode(email);
+        lock.readLock().lock();
+        try {
+            int address = findAddressByEmail(mail);
+            return address < 0 ? null : new Row().at(address).toEmployee();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Every employee with exactly this name, in id order
+    List<Employee> findByName(String firstName, String lastName) {
+        byte[] first = encode(firstName);
+        byte[] last = encode(lastName);
+        List<Employee> employees = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Row row = new Row();
+            byName.forEach(hash(first, last), id -> {
+                row.at((int) byId.get(id));
+                int firstAt = row.address + RECORD_HEADER;
+                if (equalsAt(firstAt, first) && equalsAt(skip(firstAt), last)) {
+                    employees.add(row.toEmployee());
+                }
+                return true;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        employees.sort(Comparator.comparing(Employee::getId));
+        return employees;
+    }
+
+    //Keyset page in id order, the mapper sees each record while the read lock is held
+    <T> List<T> readAfter(long afterId, int limit, RowMapper<T> mapper) {
+        List<T> rows = new ArrayList<>(Math.min(limit, 1024));
+        lock.readLock().lock();
+        try {
+            Row row = new Row();
+            for (int i = firstIndexAfter(afterId); i < idCount && rows.size() < limit; i++) {
+                long id = ids.getLong(i * Long.BYTES);
+                if (id > 0) {
+                    rows.add(mapper.map(row.at((int) byId.get(id))));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return rows;
+    }
+
+    //Conditional on the version when one is given; null if there is no such employee
+    Employee update(long id, String firstName, String lastName, String email, Long expectedVersion) {
+        byte[] first = encode(firstName);
+        byte[] last = encode(lastName);
+        byte[] mail = encode(email);
+        lock.writeLock().lock();
+        try {
+            long address = byId.get(id);
+            if (address == OffHeapLongIndex.NONE) {
+                return null;
+            }
+            Row row = new Row().at((int) address);
+            long version = row.version();
+            if (expectedVersion != null && expectedVersion != version) {
+                throw new ObjectOptimisticLockingFailureException(Employee.class, id);
+            }
+            int oldFirst = row.address + RECORD_HEADER;
+            int oldLast = skip(oldFirst);
+            int oldEmail = skip(oldLast);
+            boolean emailChanged = !equalsAt(oldEmail, mail);
+            if (emailChanged && findAddressByEmail(mail) >= 0) {
+                throw duplicateEmail(email);
+            }
+            long oldEmailHash = hash(bytesAt(oldEmail));
+            long oldNameHash = hash(bytesAt(oldFirst), bytesAt(oldLast));
+            kill((int) address);
+            append(id, version + 1, first, last, mail);
+            if (emailChanged) {
+                byEmail.remove(oldEmailHash, id);
+                byEmail.put(hash(mail), id);
+            }
+            long nameHash = hash(first, last);
+            if (nameHash != oldNameHash) {
+                byName.remove(oldNameHash, id);
+                byName.put(nameHash, id);
+            }
+            modifications++;
+            return new Row().at((int) byId.get(id)).toEmployee();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //Conditional on the version when one is given; false if there is no such employee
+    boolean delete(long id, Long expectedVersion) {
+        lock.writeLock().lock();
+        try {
+            long address = byId.get(id);
+            if (address == OffHeapLongIndex.NONE) {
+                return false;
+            }
+            Row row = new Row().at((int) address);
+            if (expectedVersion != null && expectedVersion != row.version()) {
+                throw new ObjectOptimisticLockingFailureException(Employee.class, id);
+            }
+            int first = row.address + RECORD_HEADER;
+            byEmail.remove(hash(bytesAt(skip(skip(first)))), id);
+            byName.remove(hash(bytesAt(first), bytesAt(skip(first))), id);
+            kill((int) address);
+            byId.remove(id, address);
+            removeId(id);
+            modifications++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Bumped by every write, so a periodic snapshot can tell whether anything changed since the last one
+    long modifications() {
+        lock.readLock().lock();
+        try {
+            return modifications;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Bytes of live records; allocatedBytes() also counts dead records, free arena space and the indexes
+    long usedBytes() {
+        lock.readLock().lock();
+        try {
+            return liveBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long allocatedBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) arena.capacity() + ids.capacity()
+                    + byId.allocatedBytes() + byEmail.allocatedBytes() + byName.allocatedBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Writes all employees in id order in the EmployeeSnapshotWriter format, so the same file can also be imported
+    //into the database. Writers wait for the whole export; returns the modification count the snapshot reflects
+    long writeSnapshot(WritableByteChannel channel, boolean compress) throws IOException {
+        lock.readLock().lock();
+        try {
+            EmployeeSnapshotWriter writer = new EmployeeSnapshotWriter(channel, compress);
+            Row row = new Row();
+            long rows = 0;
+            for (int i = 0; i < idCount; i++) {
+                long id = ids.getLong(i * Long.BYTES);
+                if (id > 0) {
+                    row.at((int) byId.get(id));
+                    writer.writeRow(id, row.version(), row.firstName(), row.lastName(), row.email());
+                    rows++;
+                }
+            }
+            writer.finish(rows);
+            return modifications;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Fills an empty store from a snapshot, which has to be in id order as both writers produce it
+    long readSnapshot(ReadableByteChannel channel) throws IOException {
+        EmployeeSnapshotReader reader = new EmployeeSnapshotReader(channel);
+        lock.writeLock().lock();
+        try {
+            if (byId.size() > 0) {
+                throw new IllegalStateException("Snapshots are only loaded into an empty store");
+            }
+            long rows = 0;
+            while (reader.next(rows)) {
+                if (reader.id < nextId) {
+                    throw new IOException("Snapshot is not in id order at id " + reader.id);
+                }
+                byte[] first = encode(reader.firstName);
+                byte[] last = encode(reader.lastName);
+                byte[] mail = encode(reader.email);
+                if (findAddressByEmail(mail) >= 0) {
+                    throw new IOException("Snapshot contains the email " + reader.email + " twice");
+                }
+                append(reader.id, reader.version, first, last, mail);
+                appendId(reader.id);
+                byEmail.put(hash(mail), reader.id);
+                byName.put(hash(first, last), reader.id);
+                nextId = reader.id + 1;
+                rows++;
+            }
+            return rows;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void append(long id, long version, byte[] first, byte[] last, byte[] mail) {
+        int length = RECORD_HEADER + 3 * Short.BYTES + first.length + last.length + mail.length;
+        if (arena.capacity() - top < length) {
+            relocate(length);
+        }
+        int address = top;
+        arena.putLong(address, id);
+        arena.putLong(address + Long.BYTES, version);
+        int position = putString(address + RECORD_HEADER, first);
+        position = putString(position, last);
+        top = putString(position, mail);
+        liveBytes += length;
+        long previous = byId.get(id);
+        if (previous == OffHeapLongIndex.NONE) {
+            byId.put(id, address);
+        } else {
+            byId.replace(id, previous, address);
+        }
+    }
+
+    //Marks the record dead; its bytes stay in the arena until the next relocation
+    private void kill(int address) {
+        liveBytes -= recordLength(address);
+    }
+
+    //Copies the indexed records in id order into a new arena with room for at least twice the copied data. During an
+    //update byId still points at the killed old record, which is copied too, so the size comes from the bytes copied
+    //rather than from liveBytes
+    private void relocate(int needed) {
+        compactIds();
+        long copied = 0;
+        for (int i = 0; i < idCount; i++) {
+            copied += recordLength((int) byId.get(ids.getLong(i * Long.BYTES)));
+        }
+        if (copied + needed > MAX_ARENA_BYTES) {
+            throw new IllegalStateException("Off-heap employee store is full (" + MAX_ARENA_BYTES + " bytes)");
+        }
+        long wanted = Math.max(arena.capacity(), 2 * (copied + needed));
+        ByteBuffer target = ByteBuffer.allocateDirect((int) Math.min(wanted, MAX_ARENA_BYTES));
+        int position = 0;
+        for (int i = 0; i < idCount; i++) {
+            long id = ids.getLong(i * Long.BYTES);
+            long address = byId.get(id);
+            int length = recordLength((int) address);
+            target.put(position, arena, (int) address, length);
+            byId.replace(id, address, position);
+            position += length;
+        }
+        arena = target;
+        top = position;
+    }
+
+    private void appendId(long id) {
+        if ((idCount + 1) * Long.BYTES > ids.capacity()) {
+            compactIds();
+            if ((idCount + 1) * Long.BYTES > ids.capacity() / 2) {
+                ByteBuffer grown = ByteBuffer.allocateDirect(ids.capacity() * 2);
+                grown.put(0, ids, 0, idCount * Long.BYTES);
+                ids = grown;
+            }
+        }
+        ids.putLong(idCount++ * Long.BYTES, id);
+    }
+
+    private void removeId(long id) {
+        int index = firstIndexAfter(id - 1);
+        ids.putLong(index * Long.BYTES, -id);
+        if (++deletedIds > idCount / 2) {
+            compactIds();
+        }
+    }
+
+    private void compactIds() {
+        int kept = 0;
+        for (int i = 0; i < idCount; i++) {
+            long id = ids.getLong(i * Long.BYTES);
+            if (id > 0) {
+                ids.putLong(kept++ * Long.BYTES, id);
+            }
+        }
+        idCount = kept;
+        deletedIds = 0;
+    }
+
+    //Index of the first id greater than afterId; deleted ids are negated, so the search compares absolute values
+    private int firstIndexAfter(long afterId) {
+        int low = 0;
+        int high = idCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Math.abs(ids.getLong(middle * Long.BYTES)) <= afterId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int findAddressByEmail(byte[] mail) {
+        int[] found = {-1};
+        byEmail.forEach(hash(mail), id -> {
+            int address = (int) byId.get(id);
+            if (equalsAt(skip(skip(address + RECORD_HEADER)), mail)) {
+                found[0] = address;
+                return false;
+            }
+            return true;
+        });
+        return found[0];
+    }
+
+    private int recordLength(int address) {
+        return skip(skip(skip(address + RECORD_HEADER))) - address;
+    }
+
+    private int putString(int position, byte[] bytes) {
+        arena.putShort(position, (short) bytes.length);
+        arena.put(position + Short.BYTES, bytes);
+        return position + Short.BYTES + bytes.length;
+    }
+
+    private int skip(int position) {
+        return position + Short.BYTES + Short.toUnsignedInt(arena.getShort(position));
+    }
+
+    private byte[] bytesAt(int position) {
+        byte[] bytes = new byte[Short.toUnsignedInt(arena.getShort(position))];
+        arena.get(position + Short.BYTES, bytes);
+        return bytes;
+    }
+
+    private String stringAt(int position) {
+        return new String(bytesAt(position), StandardCharsets.UTF_8);
+    }
+
+    private boolean equalsAt(int position, byte[] bytes) {
+        return Short.toUnsignedInt(arena.getShort(position)) == bytes.length
+                && arena.slice(position + Short.BYTES, bytes.length).equals(ByteBuffer.wrap(bytes));
+    }
+
+    private static DuplicateKeyException duplicateEmail(String email) {
+        return new DuplicateKeyException("Duplicate email " + email + " for " + Employee.EMAIL_UNIQUE_CONSTRAINT);
+    }
+
+    //Null and oversized values are rejected like the not null columns and the u16 length would
+    private static byte[] encode(String value) {
+        if (value == null) {
+            throw new DataIntegrityViolationException("firstName, lastName and email are required");
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new DataIntegrityViolationException("Value longer than " + MAX_STRING_BYTES + " bytes");
+        }
+        return bytes;
+    }
+
+    //FNV-1a; 0 is the empty slot marker of OffHeapLongIndex
+    private static long hash(byte[]... parts) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte[] part : parts) {
+            for (byte b : part) {
+                hash = (hash ^ (b & 0xFF)) * 0x100000001b3L;
+            }
+            hash = (hash ^ 0x1F) * 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+}
@@ -0,0 +1,155 @@
+package net.javaguides.springboot.service.impl;
+
+import java.nio.ByteBuffer;
+import java.util.function.LongPredicate;
+
+//Open addressing long -> long multimap in one direct buffer: 16 byte slots (key, value), linear probing, key 0 marks
+//an empty slot. Entries with the same key sit in the same probe run, so get() and forEach() stop at the first empty
+//slot. Removal shifts the rest of the run back instead of leaving tombstones. Not thread safe, the owning store locks.
+final class OffHeapLongIndex {
+
+    static final long NONE = Long.MIN_VALUE;
+
+    private static final int SLOT_BYTES = 2 * Long.BYTES;
+    private static final double MAX_LOAD = 0.7;
+
+    private ByteBuffer slots;
+    private int mask;
+    private int size;
+
+    OffHeapLongIndex(int expectedEntries) {
+        allocate(Math.max(16, Integer.highestOneBit(Math.max(1, (int) (expectedEntries / MAX_LOAD))) << 1));
+    }
+
+    int size() {
+        return size;
+    }
+
+    long allocatedBytes() {
+        return slots.capacity();
+    }
+
+    //key must not be 0
+    void put(long key, long value) {
+        if (size + 1 > (mask + 1) * MAX_LOAD) {
+            resize();
+        }
+        int slot = slotOf(key);
+        while (keyAt(slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        set(slot, key, value);
+        size++;
+    }
+
+    //First value stored under key, NONE if there is none
+    long get(long key) {
+        for (int slot = slotOf(key); keyAt(slot) != 0; slot = (slot + 1) & mask) {
+            if (keyAt(slot) == key) {
+                return valueAt(slot);
+            }
+        }
+        return NONE;
+    }
+
+    //Values stored under key until the visitor returns false
+    void forEach(long key, LongPredicate visitor) {
+        for (int slot = slotOf(key); keyAt(slot) != 0; slot = (slot + 1) & mask) {
+            if (keyAt(slot) == key && !visitor.test(valueAt(slot))) {
+                return;
+            }
+        }
+    }
+
+    boolean replace(long key, long oldValue, long newValue) {
+        for (int slot = slotOf(key); keyAt(slot) != 0; slot = (slot + 1) & mask) {
+            if (keyAt(slot) == key && valueAt(slot) == oldValue) {
+                set(slot, key, newValue);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean remove(long key, long value) {
+        for (int slot = slotOf(key); keyAt(slot) != 0; slot = (slot + 1) & mask) {
+            if (keyAt(slot) == key && valueAt(slot) == value) {
+                shiftBack(slot);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void clear() {
+        for (int slot = 0; slot <= mask; slot++) {
+            set(slot, 0, 0);
+        }
+        size = 0;
+    }
+
+    //Moves later entries of the run into the hole unless that would put them before their home slot
+    private void shiftBack(int hole) {
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = keyAt(slot);
+            if (key == 0) {
+                break;
+            }
+            int home = slotOf(key);
+            boolean movable = hole <= slot ? (home <= hole || home > slot) : (home <= hole && home > slot);
+            if (movable) {
+                set(hole, key, valueAt(slot));
+                hole = slot;
+            }
+        }
+        set(hole, 0, 0);
+    }
+
+    private void resize() {
+        ByteBuffer old = slots;
+        int oldSlots = mask + 1;
+        allocate(oldSlots << 1);
+        size = 0;
+        for (int slot = 0; slot < oldSlots; slot++) {
+            long key = old.getLong(slot * SLOT_BYTES);
+            if (key != 0) {
+                put(key, old.getLong(slot * SLOT_BYTES + Long.BYTES));
+            }
+        }
+    }
+
+    private void allocate(int slotCount) {
+        if (slotCount > Integer.MAX_VALUE / SLOT_BYTES) {
+            throw new IllegalStateException("Off-heap index cannot grow beyond " + (Integer.MAX_VALUE / SLOT_BYTES) + " slots");
+        }
+        slots = ByteBuffer.allocateDirect(slotCount * SLOT_BYTES);
+        mask = slotCount - 1;
+    }
+
+    private int slotOf(long key) {
+        //Murmur3 finalizer: sequential ids and weak string hashes would otherwise cluster into long runs
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private long keyAt(int slot) {
+        return slots.getLong(slot * SLOT_BYTES);
+    }
+
+    private long valueAt(int slot) {
+        return slots.getLong(slot * SLOT_BYTES + Long.BYTES);
+    }
+
+    private void set(int slot, long key, long value) {
+        slots.putLong(slot * SLOT_BYTES, key);
+        slots.putLong(slot * SLOT_BYTES + Long.BYTES, value);
+    }
+}
@@ -0,0 +1,174 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//The reactive profile end to end: JPA creates the schema in an in-memory H2 database and R2DBC reads and writes the same one
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:employee-router;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.r2dbc.url=r2dbc:h2:mem:///employee-router;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@ActiveProfiles("reactive")
+public class EmployeeRouterTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    //Junit Test for create and get REST API
+    @Test
+    public void givenEmployeeObject_whenCreateAndGetEmployee_thenReturnSavedEmployee(){
+        //given - precondition or setup
+        Employee employee = Employee.builder().firstName("Bheem").lastName("Shekhar").email("bheem.router@gmail.com").build();
+
+        //when  - action or behaviour that we are going to test
+        Employee savedEmployee = webTestClient.post().uri("/api/employees")
+                .bodyValue(employee)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Employee.class)
+                .returnResult().getResponseBody();
+
+        //then - verify output
+        webTestClient.get().uri("/api/employees/{id}", savedEmployee.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.email").isEqualTo(employee.getEmail())
+                .jsonPath("$.version").isEqualTo(0);
+        webTestClient.post().uri("/api/employees")
+                .bodyValue(employee)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    //Junit Test for keyset paginated and streaming Get Employees REST API
+    @Test
+    public void givenEmployees_whenGetPageAndStream_thenReturnEmployeesInIdOrder(){
+        //given - precondition or setup
+        for (String name : List.of("raj", "ravi", "ramesh")) {
+            webTestClient.post().uri("/api/employees")
+                    .bodyValue(Employee.builder().firstName(name).lastName("Shekhar").email(name + ".page@gmail.com").build())
+                    .exchange()
+                    .expectStatus().isCreated();
+        }
+
+        //when  - action or behaviour that we are going to test
+        WebTestClient.BodyContentSpec page = webTestClient.get().uri("/api/employees?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody();
+        List<Employee> streamed = webTestClient.get().uri("/api/employees/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Employee.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        //then - verify output
+        page.jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.nextCursor").isNotEmpty();
+        assertThat(streamed).extracting(Employee::getId).isSorted();
+        assertThat(streamed).extracting(Employee::getEmail).contains("raj.page@gmail.com", "ravi.page@gmail.com", "ramesh.page@gmail.com");
+    }
+
+    //Junit Test for update REST API with a stale version and delete REST API
+    @Test
+    public void givenSavedEmployee_whenUpdateWithStaleVersionAndDelete_thenReturnConflictAndNoContent(){
+        //given - precondition or setup
+        Employee savedEmployee = webTestClient.post().uri("/api/employees")
+                .bodyValue(Employee.builder().firstName("Ravi").lastName("Shekhar").email("ravi.update@gmail.com").build())
+                .exchange()
+                .expectBody(Employee.class)
+                .returnResult().getResponseBody();
+        Employee updatedEmployee = Employee.builder().firstName("Ravi").lastName("Kumar").email("ravi.update@gmail.com").version(0L).build();
+
+        //when  - action or behaviour that we are going to test
+        webTestClient.put().uri("/api/employees/{id}", savedEmployee.getId())
+                .bodyValue(updatedEmployee)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.version").isEqualTo(1);
+
+        //then - verify output
+        webTestClient.put().uri("/api/employees/{id}", savedEmployee.getId())
+                .bodyValue(updatedEmployee)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+        updatedEmployee.setVersion(null);
+        webTestClient.put().uri("/api/employees/{id}", savedEmployee.getId())
+                .bodyValue(updatedEmployee)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.version").isEqualTo(2);
+        webTestClient.delete().uri("/api/employees/{id}", savedEmployee.getId())
+                .exchange()
+                .expectStatus().isNoContent();
+        webTestClient.delete().uri("/api/employees/{id}", savedEmployee.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    //Junit Test for conditional get, update and delete REST API with ETags
+    @Test
+    public void givenSavedEmployee_whenConditionalRequests_thenNotModifiedAndPreconditionFailed(){
+        //given - precondition or setup
+        Employee savedEmployee = webTestClient.post().uri("/api/employees")
+                .bodyValue(Employee.builder().firstName("Raj").lastName("Shekhar").email("raj.etag@gmail.com").build())
+                .exchange()
+                .expectBody(Employee.class)
+                .returnResult().getResponseBody();
+        Employee updatedEmployee = Employee.builder().firstName("Raj").lastName("Kumar").email("raj.etag@gmail.com").build();
+
+        //when  - action or behaviour that we are going to test
+        webTestClient.get().uri("/api/employees/{id}", savedEmployee.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"");
+        webTestClient.get().uri("/api/employees/{id}", savedEmployee.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isNotModified();
+        webTestClient.put().uri("/api/employees/{id}", savedEmployee.getId())
+                .header(HttpHeaders.IF_MATCH, "\"5\"")
+                .bodyValue(updatedEmployee)
+                .exchange()
+                .expectStatus().isEqualTo(412);
+        webTestClient.put().uri("/api/employees/{id}", savedEmployee.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(updatedEmployee)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+
+        //then - verify output
+        webTestClient.delete().uri("/api/employees/{id}", savedEmployee.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+        webTestClient.delete().uri("/api/employees/{id}", savedEmployee.getId())
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .exchange()
+                .expectStatus().isNoContent();
+        webTestClient.delete().uri("/api/employees/{id}", savedEmployee.getId())
+                .header(HttpHeaders.IF_MATCH, "*")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+}
@@ -0,0 +1,77 @@
+package net.javaguides.springboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.ReactiveEmployeeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveEmployeeServiceTest {
+
+    private ReactiveEmployeeServiceImpl reactiveEmployeeService;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory h2 = ConnectionFactories.get("r2dbc:h2:mem:///" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        //every statement waits a little for its connection, so concurrent callers overlap like on a real network
+        DatabaseClient databaseClient = DatabaseClient.create(new ConnectionFactory() {
+            @Override
+            public Publisher<? extends Connection> create() {
+                return Mono.delay(Duration.ofMillis(5)).then(Mono.from(h2.create()));
+            }
+
+            @Override
+            public ConnectionFactoryMetadata getMetadata() {
+                return h2.getMetadata();
+            }
+        });
+        databaseClient.sql("create table employees (id bigint primary key, first_name varchar(255), "
+                + "last_name varchar(255), email varchar(255) unique, version bigint)").then().block();
+        databaseClient.sql("create sequence employees_seq start with 1 increment by " + Employee.ID_ALLOCATION_SIZE)
+                .then().block();
+        reactiveEmployeeService = new ReactiveEmployeeServiceImpl();
+        ReflectionTestUtils.setField(reactiveEmployeeService, "databaseClient", databaseClient);
+        ReflectionTestUtils.setField(reactiveEmployeeService, "meterRegistry", new SimpleMeterRegistry());
+    }
+
+    //Junit Test for concurrent saveEmployee - callers share the id blocks, none is reserved and thrown away
+    @Test
+    public void givenConcurrentSaves_whenSaveEmployee_thenIdsAreContiguous(){
+        //given - precondition or setup
+        int count = 4 * Employee.ID_ALLOCATION_SIZE;
+
+        //when  - action or behaviour that we are going to test
+        List<Long> ids = Flux.range(0, count)
+                .parallel(8)
+                .runOn(Schedulers.parallel())
+                .flatMap(i -> reactiveEmployeeService.saveEmployee(Employee.builder()
+                        .firstName("First" + i)
+                        .lastName("Last" + i)
+                        .email("employee" + i + "@gmail.com")
+                        .build()))
+                .map(Employee::getId)
+                .sequential()
+                .collectList()
+                .block();
+
+        //then - verify output
+        assertThat(ids).containsExactlyInAnyOrderElementsOf(LongStream.rangeClosed(1, count).boxed().toList());
+    }
+}
@@ -0,0 +1,176 @@
+package net.javaguides.springboot.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.javaguides.springboot.config.EmployeeMetrics;
+import net.javaguides.springboot.dto.BulkDeleteResult;
+import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+
+//Functional WebFlux handlers, routed by EmployeeRouter. Single employees behave like EmployeeController: the version
+//is the ETag, If-None-Match answers 304 and If-Match makes PUT and DELETE conditional (412 when it fails).
+//Not served in the reactive profile: collection ETags, batch GET and create, search, write-behind, the change feed and
+//snapshots; the servlet rate limit filter does not apply either
+@Component
+@Profile("reactive")
+public class EmployeeHandler {
+
+    private ReactiveEmployeeService employeeService;
+
+    private MeterRegistry meterRegistry;
+
+    public EmployeeHandler(ReactiveEmployeeService employeeService, MeterRegistry meterRegistry){
+        this.employeeService = employeeService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Mono<ServerResponse> createEmployee(ServerRequest request){
+        return request.bodyToMono(Employee.class)
+                .flatMap(employeeService::saveEmployee)
+                .flatMap(employee -> ServerResponse.status(HttpStatus.CREATED).bodyValue(employee))
+                .onErrorResume(this::conflict);
+    }
+
+    //JSON array written element by element as rows arrive from the database
+    public Mono<ServerResponse> getAllEmployees(ServerRequest request){
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(employeeService.getAllEmployees(), Employee.class);
+    }
+
+    public Mono<ServerResponse> getEmployeesPage(ServerRequest request){
+        int pageSize;
+        try {
+            pageSize = EmployeeController.pageSize(Integer.parseInt(request.queryParam("limit").orElseThrow()));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be a number", e);
+        }
+        long afterId = EmployeeController.decodeCursor(request.queryParam("after").orElse(null));
+        return employeeService.getEmployeesAfter(afterId, pageSize + 1)
+                .collectList()
+                .flatMap(employees -> ServerResponse.ok().bodyValue(EmployeeController.page(employees, pageSize, Employee::getId)));
+    }
+
+    //Newline delimited JSON; demand from the client connection is propagated down to the R2DBC driver
+    public Mono<ServerResponse> streamAllEmployees(ServerRequest request){
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(employeeService.getAllEmployees(), Employee.class);
+    }
+
+    public Mono<ServerResponse> getEmployeeById(ServerRequest request){
+        return employeeService.getEmployeeById(employeeId(request))
+                .flatMap(employee -> {
+                    String eTag = EmployeeController.eTag(employee.getVersion());
+                    return request.checkNotModified(eTag)
+                            .switchIfEmpty(Mono.defer(() -> ServerResponse.ok().eTag(eTag).bodyValue(employee)));
+                })
+                .switchIfEmpty(notFound("get"));
+    }
+
+    //Same rules as EmployeeController: a stale body version is 409, a failed If-Match 412
+    public Mono<ServerResponse> updateEmployee(ServerRequest request){
+        long employeeId = employeeId(request);
+        String ifMatch = request.headers().firstHeader(HttpHeaders.IF_MATCH);
+        if (ifMatch != null) {
+            Long version = "*".equals(ifMatch.trim()) ? null : EmployeeController.ifMatchVersion(ifMatch);
+            return request.bodyToMono(Employee.class)
+                    .flatMap(employee -> {
+                        if (version != null) {
+                            employee.setVersion(version);
+                        }
+                        return employeeService.updateEmployee(employeeId, employee);
+                    })
+                    .flatMap(this::updated)
+                    .switchIfEmpty(ServerResponse.status(HttpStatus.PRECONDITION_FAILED).build())
+                    .onErrorResume(OptimisticLockingFailureException.class,
+                            e -> ServerResponse.status(HttpStatus.PRECONDITION_FAILED).build())
+                    .onErrorResume(this::conflict);
+        }
+        return request.bodyToMono(Employee.class)
+                .flatMap(employee -> employeeService.updateEmployee(employeeId, employee))
+                .flatMap(this::updated)
+                .switchIfEmpty(notFound("update"))
+                .onErrorResume(this::conflict);
+    }
+
+    private Mono<ServerResponse> updated(Employee employee){
+        return ServerResponse.ok().eTag(EmployeeController.eTag(employee.getVersion())).bodyValue(employee);
+    }
+
+    public Mono<ServerResponse> deleteEmployee(ServerRequest request){
+        long employeeId = employeeId(request);
+        String ifMatch = request.headers().firstHeader(HttpHeaders.IF_MATCH);
+        if (ifMatch != null) {
+            Long version = "*".equals(ifMatch.trim()) ? null : EmployeeController.ifMatchVersion(ifMatch);
+            return employeeService.deleteEmployee(employeeId, version)
+                    .onErrorResume(OptimisticLockingFailureException.class, e -> Mono.just(false))
+                    .flatMap(deleted -> deleted
+                            ? ServerResponse.noContent().build()
+                            : ServerResponse.status(HttpStatus.PRECONDITION_FAILED).build());
+        }
+        return employeeService.deleteEmployee(employeeId)
+                .flatMap(deleted -> deleted ? ServerResponse.noContent().build() : notFound("delete"));
+    }
+
+    public Mono<ServerResponse> deleteEmployees(ServerRequest request){
+        List<Long> employeeIds;
+        try {
+            employeeIds = request.queryParams().get("ids").stream()
+                    .flatMap(ids -> Arrays.stream(ids.split(",")))
+                    .map(Long::valueOf)
+                    .toList();
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids must be numbers", e);
+        }
+        if (employeeIds.size() > EmployeeController.MAX_DELETE_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + EmployeeController.MAX_DELETE_IDS + " ids per request");
+        }
+        return employeeService.deleteEmployees(employeeIds)
+                .flatMap(deleted -> ServerResponse.ok().bodyValue(
+                        new BulkDeleteResult((int) employeeIds.stream().distinct().count(), deleted.intValue())));
+    }
+
+    private static long employeeId(ServerRequest request){
+        try {
+            return Long.parseLong(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid employee id", e);
+        }
+    }
+
+    private Mono<ServerResponse> notFound(String operation){
+        return Mono.defer(() -> {
+            meterRegistry.counter(EmployeeMetrics.NOT_FOUND, "operation", operation).increment();
+            return ServerResponse.notFound().build();
+        });
+    }
+
+    //GlobalExceptionHandler only advises annotated controllers, so the same 409 mapping is repeated here
+    private Mono<ServerResponse> conflict(Throwable exception){
+        if (exception instanceof ResourceNotFoundException) {
+            return ServerResponse.status(HttpStatus.CONFLICT).bodyValue(exception.getMessage());
+        }
+        if (exception instanceof OptimisticLockingFailureException) {
+            return ServerResponse.status(HttpStatus.CONFLICT).bodyValue("Employee was modified concurrently, reload and retry");
+        }
+        if (exception instanceof DataIntegrityViolationException) {
+            return ServerResponse.status(HttpStatus.CONFLICT).bodyValue("Employee conflicts with existing data");
+        }
+        return Mono.error(exception);
+    }
+}
@@ -0,0 +1,30 @@
+package net.javaguides.springboot.controller;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.queryParam;
+
+//Routes of the reactive profile, a subset of EmployeeController's paths (see EmployeeHandler for what differs)
+@Configuration
+@Profile("reactive")
+public class EmployeeRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> employeeRoutes(EmployeeHandler employeeHandler){
+        return RouterFunctions.route()
+                .POST("/api/employees", employeeHandler::createEmployee)
+                .GET("/api/employees", queryParam("limit", limit -> true), employeeHandler::getEmployeesPage)
+                .GET("/api/employees", employeeHandler::getAllEmployees)
+                .GET("/api/employees/stream", employeeHandler::streamAllEmployees)
+                .GET("/api/employees/{id}", employeeHandler::getEmployeeById)
+                .PUT("/api/employees/{id}", employeeHandler::updateEmployee)
+                .DELETE("/api/employees", queryParam("ids", ids -> true), employeeHandler::deleteEmployees)
+                .DELETE("/api/employees/{id}", employeeHandler::deleteEmployee)
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.model.Employee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+//Non-blocking counterpart of EmployeeService for the "reactive" profile; empty Monos mean "not found"
+public interface ReactiveEmployeeService {
+    Mono<Employee> saveEmployee(Employee employee);
+
+    Flux<Employee> getAllEmployees();
+
+    Flux<Employee> getEmployeesAfter(long afterId, int limit);
+
+    Mono<Employee> getEmployeeById(Long id);
+
+    Mono<Employee> updateEmployee(Long id, Employee updatedEmployee);
+
+    Mono<Boolean> deleteEmployee(Long id);
+
+    Mono<Boolean> deleteEmployee(Long id, Long expectedVersion);
+
+    Mono<Long> deleteEmployees(Collection<Long> ids);
+}
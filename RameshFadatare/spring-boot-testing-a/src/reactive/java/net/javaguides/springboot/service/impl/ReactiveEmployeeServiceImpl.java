@@ -0,0 +1,255 @@
+package net.javaguides.springboot.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Readable;
+import net.javaguides.springboot.config.EmployeeMetrics;
+import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.ReactiveEmployeeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+//Plain SQL over R2DBC - no persistence context, so every call is a single statement and nothing is cached
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+    static final int FETCH_SIZE = 1000;
+
+    static final int UNVERSIONED_UPDATE_RETRIES = 3;
+
+    private static final String SELECT_EMPLOYEES = "select id, first_name, last_name, email, version from employees";
+
+    @Autowired
+    DatabaseClient databaseClient;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    //Block of ids reserved from employees_seq, handed out in memory like Hibernate's pooled optimizer does.
+    //Starts exhausted, the first insert reserves the first block
+    private final AtomicReference<IdBlock> idBlock = new AtomicReference<>(new IdBlock(1, 0));
+
+    @Override
+    public Mono<Employee> saveEmployee(Employee employee) {
+        return nextId()
+                .flatMap(id -> databaseClient.sql("insert into employees (id, first_name, last_name, email, version) " +
+                                "values (:id, :firstName, :lastName, :email, 0)")
+                        .bind("id", id)
+                        .bind("firstName", employee.getFirstName())
+                        .bind("lastName", employee.getLastName())
+                        .bind("email", employee.getEmail())
+                        .fetch()
+                        .rowsUpdated()
+                        .thenReturn(Employee.builder()
+                                .id(id)
+                                .firstName(employee.getFirstName())
+                                .lastName(employee.getLastName())
+                                .email(employee.getEmail())
+                                .version(0L)
+                                .build()))
+                //the id is fresh, so a duplicate key can only be the unique email index
+                .onErrorMap(DuplicateKeyException.class, exception -> {
+                    meterRegistry.counter(EmployeeMetrics.DUPLICATE_EMAILS, "operation", "save").increment();
+                    return new ResourceNotFoundException("Employee already Exists with this email :" + employee.getEmail(), exception);
+                });
+    }
+
+    //Rows are pulled from the driver as the subscriber requests them, so a slow client does not buffer the table
+    @Override
+    public Flux<Employee> getAllEmployees() {
+        return databaseClient.sql(SELECT_EMPLOYEES + " order by id")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(ReactiveEmployeeServiceImpl::toEmployee)
+                .all();
+    }
+
+    @Override
+    public Flux<Employee> getEmployeesAfter(long afterId, int limit) {
+        return databaseClient.sql(SELECT_EMPLOYEES + " where id > :afterId order by id limit :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveEmployeeServiceImpl::toEmployee)
+                .all();
+    }
+
+    @Override
+    public Mono<Employee> getEmployeeById(Long id) {
+        return databaseClient.sql(SELECT_EMPLOYEES + " where id = :id")
+                .bind("id", id)
+                .map(ReactiveEmployeeServiceImpl::toEmployee)
+                .one();
+    }
+
+    //Same single conditional UPDATE as the blocking EmployeeRepository.updateEmployee. Statements run without a
+    //transaction, so the version after an unconditional update cannot be read back reliably: it is made conditional
+    //on the version read just before instead, and read again if another writer got in between
+    @Override
+    public Mono<Employee> updateEmployee(Long id, Employee updatedEmployee) {
+        if (updatedEmployee.getVersion() == null) {
+            return databaseClient.sql("select version from employees where id = :id")
+                    .bind("id", id)
+                    .map(row -> row.get("version", Long.class))
+                    .one()
+                    .flatMap(version -> updateEmployee(id, updatedEmployee, version))
+                    .retryWhen(Retry.max(UNVERSIONED_UPDATE_RETRIES)
+                            .filter(ObjectOptimisticLockingFailureException.class::isInstance)
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+        }
+        return updateEmployee(id, updatedEmployee, updatedEmployee.getVersion());
+    }
+
+    private Mono<Employee> updateEmployee(Long id, Employee updatedEmployee, long version) {
+        return databaseClient.sql("update employees " +
+                        "set first_name = :firstName, last_name = :lastName, email = :email, version = version + 1 " +
+                        "where id = :id and version = :version")
+                .bind("id", id)
+                .bind("firstName", updatedEmployee.getFirstName())
+                .bind("lastName", updatedEmployee.getLastName())
+                .bind("email", updatedEmployee.getEmail())
+                .bind("version", version)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updatedRows -> {
+                    if (updatedRows > 0) {
+                        return Mono.just(Employee.builder()
+                                .id(id)
+                                .firstName(updatedEmployee.getFirstName())
+                                .lastName(updatedEmployee.getLastName())
+                                .email(updatedEmployee.getEmail())
+                                .version(version + 1)
+                                .build());
+                    }
+                    //nothing matched: either the employee is gone or the client's version is stale
+                    return exists(id).flatMap(exists -> exists
+                            ? Mono.error(new ObjectOptimisticLockingFailureException(Employee.class, id))
+                            : Mono.empty());
+                });
+    }
+
+    @Override
+    public Mono<Boolean> deleteEmployee(Long id) {
+        return databaseClient.sql("delete from employees where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()
+                .map(deletedRows -> deletedRows > 0);
+    }
+
+    //Same as EmployeeServiceImpl: zero rows with an expected version is a conflict if the row is still there
+    @Override
+    public Mono<Boolean> deleteEmployee(Long id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return deleteEmployee(id);
+        }
+        return databaseClient.sql("delete from employees where id = :id and version = :version")
+                .bind("id", id)
+                .bind("version", expectedVersion)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(deletedRows -> deletedRows > 0
+                        ? Mono.just(true)
+                        : exists(id).flatMap(exists -> exists
+                                ? Mono.error(new ObjectOptimisticLockingFailureException(Employee.class, id))
+                                : Mono.just(false)));
+    }
+
+    @Override
+    public Mono<Long> deleteEmployees(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        int chunks = (distinctIds.size() + EmployeeServiceImpl.DELETE_CHUNK_SIZE - 1) / EmployeeServiceImpl.DELETE_CHUNK_SIZE;
+        return Flux.range(0, chunks)
+                .map(chunk -> distinctIds.subList(chunk * EmployeeServiceImpl.DELETE_CHUNK_SIZE,
+                        Math.min((chunk + 1) * EmployeeServiceImpl.DELETE_CHUNK_SIZE, distinctIds.size())))
+                .concatMap(chunk -> databaseClient.sql("delete from employees where id in (:ids)")
+                        .bind("ids", chunk)
+                        .fetch()
+                        .rowsUpdated())
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Boolean> exists(Long id) {
+        return databaseClient.sql("select 1 from employees where id = :id")
+                .bind("id", id)
+                .map(row -> true)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    //Lock-free: an id is taken from the current block, and callers that find it exhausted wait for its successor
+    private Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            IdBlock block = idBlock.get();
+            long id = block.next.getAndIncrement();
+            return id <= block.max ? Mono.just(id) : block.successor().then(nextId());
+        });
+    }
+
+    //Every value read from employees_seq reserves (value - allocation size, value]; Hibernate's pooled optimizer
+    //reads the same sequence with the same meaning, so ids from both stacks never collide.
+    //All callers that find a block exhausted share one reservation of the next block, so a burst of inserts reads the
+    //sequence once instead of once per caller, throwing away all blocks but the last
+    private final class IdBlock {
+
+        private final AtomicLong next;
+        private final long max;
+        private final AtomicReference<Mono<IdBlock>> successor = new AtomicReference<>();
+
+        IdBlock(long first, long max) {
+            this.next = new AtomicLong(first);
+            this.max = max;
+        }
+
+        Mono<IdBlock> successor() {
+            Mono<IdBlock> reservation = successor.get();
+            if (reservation != null) {
+                return reservation;
+            }
+            //a failed read is not cached, the next caller tries again
+            Mono<IdBlock> created = Mono.defer(ReactiveEmployeeServiceImpl.this::nextSequenceValue)
+                    .map(hi -> new IdBlock(Math.max(1, hi - Employee.ID_ALLOCATION_SIZE + 1), hi))
+                    .doOnNext(block -> idBlock.compareAndSet(this, block))
+                    .doOnError(e -> successor.set(null))
+                    .cache();
+            return successor.compareAndSet(null, created) ? created : successor();
+        }
+    }
+
+    //MySQL has no sequences, Hibernate emulates employees_seq there with a one row table
+    private Mono<Long> nextSequenceValue() {
+        if (!"MySQL".equalsIgnoreCase(databaseClient.getConnectionFactory().getMetadata().getName())) {
+            return databaseClient.sql("select next value for employees_seq")
+                    .map(row -> row.get(0, Long.class))
+                    .one();
+        }
+        return databaseClient.inConnection(connection ->
+                Mono.from(connection.createStatement("update employees_seq set next_val = last_insert_id(next_val + "
+                                + Employee.ID_ALLOCATION_SIZE + ")").execute())
+                        .flatMap(result -> Mono.from(result.getRowsUpdated()))
+                        .then(Mono.from(connection.createStatement("select last_insert_id()").execute()))
+                        .flatMap(result -> Mono.from(result.map(row -> row.get(0, Long.class))))
+                        .map(next -> next - Employee.ID_ALLOCATION_SIZE));
+    }
+
+    private static Employee toEmployee(Readable row) {
+        return Employee.builder()
+                .id(row.get("id", Long.class))
+                .firstName(row.get("first_name", String.class))
+                .lastName(row.get("last_name", String.class))
+                .email(row.get("email", String.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//H2 in MySQL mode stands in for a MySQL schema from an earlier release
+class SchemaUpgradeTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private SchemaUpgrade schemaUpgrade;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        schemaUpgrade = new SchemaUpgrade(dataSource);
+    }
+
+    //Junit Test for a database from before the pooled sequence
+    @Test
+    public void givenIdentityEmployeesTable_whenUpgrade_thenSequenceSeededAboveMaxId(){
+        //given - precondition or setup
+        jdbcTemplate.execute("create table employees (id bigint auto_increment primary key, email varchar(255))");
+        jdbcTemplate.update("insert into employees (id, email) values (1, 'a@gmail.com'), (120, 'b@gmail.com')");
+
+        //when  - action or behaviour that we are going to test
+        schemaUpgrade.upgrade();
+        schemaUpgrade.upgrade();
+
+        //then - verify output
+        assertThat(jdbcTemplate.queryForList("select next_val from employees_seq", Long.class))
+                .containsExactly(120L + Employee.ID_ALLOCATION_SIZE);
+    }
+
+    //Junit Test for a sequence that is already ahead - never moved backwards
+    @Test
+    public void givenSequenceAhead_whenUpgrade_thenSequenceUnchanged(){
+        //given - precondition or setup
+        jdbcTemplate.execute("create table employees (id bigint primary key, email varchar(255))");
+        jdbcTemplate.update("insert into employees (id, email) values (7, 'a@gmail.com')");
+        jdbcTemplate.execute("create table employees_seq (next_val bigint)");
+        jdbcTemplate.update("insert into employees_seq (next_val) values (1000)");
+
+        //when  - action or behaviour that we are going to test
+        schemaUpgrade.upgrade();
+
+        //then - verify output
+        assertThat(jdbcTemplate.queryForList("select next_val from employees_seq", Long.class)).containsExactly(1000L);
+    }
+
+    //Junit Test for an employees table without the unique email constraint
+    @Test
+    public void givenEmployeesWithoutUniqueEmail_whenUpgrade_thenConstraintAdded(){
+        //given - precondition or setup
+        jdbcTemplate.execute("create table employees (id bigint primary key, email varchar(255))");
+        jdbcTemplate.update("insert into employees (id, email) values (1, 'a@gmail.com'), (2, 'b@gmail.com')");
+
+        //when  - action or behaviour that we are going to test
+        schemaUpgrade.upgrade();
+        schemaUpgrade.upgrade();
+
+        //then - verify output
+        assertThatThrownBy(() -> jdbcTemplate.update("insert into employees (id, email) values (3, 'a@gmail.com')"))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from information_schema.table_constraints "
+                + "where constraint_name = ?", Integer.class, Employee.EMAIL_UNIQUE_CONSTRAINT)).isEqualTo(1);
+    }
+
+    //Junit Test for an employees table that already holds duplicate emails - startup fails
+    @Test
+    public void givenDuplicateEmails_whenUpgrade_thenThrowsIllegalStateException(){
+        //given - precondition or setup
+        jdbcTemplate.execute("create table employees (id bigint primary key, email varchar(255))");
+        jdbcTemplate.update("insert into employees (id, email) values (1, 'a@gmail.com'), (2, 'a@gmail.com')");
+
+        //when  - action or behaviour that we are going to test
+        //then - verify output
+        assertThatThrownBy(() -> schemaUpgrade.upgrade())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(Employee.EMAIL_UNIQUE_CONSTRAINT);
+    }
+
+    //Junit Test for a unique email index under another name - not added twice
+    @Test
+    public void givenUniqueEmailIndexWithOtherName_whenUpgrade_thenNoConstraintAdded(){
+        //given - precondition or setup
+        jdbcTemplate.execute("create table employees (id bigint primary key, email varchar(255))");
+        jdbcTemplate.execute("alter table employees add constraint uk_generated unique (email)");
+
+        //when  - action or behaviour that we are going to test
+        schemaUpgrade.upgrade();
+
+        //then - verify output
+        assertThat(jdbcTemplate.queryForObject("select count(*) from information_schema.table_constraints "
+                + "where constraint_name = ?", Integer.class, Employee.EMAIL_UNIQUE_CONSTRAINT)).isZero();
+    }
+
+    //Junit Test for an outbox table keyed by the emulated sequence
+    @Test
+    public void givenSequenceKeyedChangeTable_whenUpgrade_thenSeqAutoIncrementsAboveExistingRows(){
+        //given - precondition or setup
+        jdbcTemplate.execute("create table employee_changes (seq bigint not null primary key, employee_id bigint)");
+        jdbcTemplate.update("insert into employee_changes (seq, employee_id) values (41, 1)");
+
+        //when  - action or behaviour that we are going to test
+        schemaUpgrade.upgrade();
+        schemaUpgrade.upgrade();
+        jdbcTemplate.update("insert into employee_changes (employee_id) values (2)");
+
+        //then - verify output
+        assertThat(jdbcTemplate.queryForList("select seq from employee_changes order by seq", Long.class))
+                .containsExactly(41L, 42L);
+    }
+
+    //Junit Test for a new database - left to Hibernate
+    @Test
+    public void givenEmptyDatabase_whenUpgrade_thenNothingCreated(){
+        //given - precondition or setup
+
+        //when  - action or behaviour that we are going to test
+        schemaUpgrade.upgrade();
+
+        //then - verify output
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.tables where table_name = 'employees_seq'", Integer.class))
+                .isZero();
+    }
+}
@@ -0,0 +1,164 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.event.EmployeeChangeEvent;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.service.EmployeeChangeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@WebMvcTest(controllers = EmployeeChangeController.class, properties = {
+        "employee.changes.poll-interval=10ms",
+        "employee.changes.gap-timeout=1m"
+})
+public class EmployeeChangeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeChangeService employeeChangeService;
+
+    private MvcResult result;
+
+    private MvcResult stuck;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    //ends the streams so their subscriptions stop polling the mock before the next test stubs it
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        for (MvcResult stream : new MvcResult[]{result, stuck}) {
+            if (stream != null) {
+                stream.getRequest().getAsyncContext().complete();
+            }
+        }
+    }
+
+    //Junit Test for resuming the change stream from Last-Event-ID
+    @Test
+    public void givenLastEventId_whenStreamChanges_thenSendChangesAfterThatOffset() throws Exception {
+        //given - precondition or setup
+        given(employeeChangeService.getChangesAfter(5L, EmployeeChangeController.BATCH_SIZE))
+                .willReturn(List.of(saved(6L), deleted(7L)));
+
+        //when  - action or behaviour that we are going to test
+        result = mockMvc.perform(get("/api/employees/changes").header("Last-Event-ID", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then - verify output
+        await().atMost(Duration.ofSeconds(5)).until(() -> result.getResponse().getContentAsString().contains("id:7"));
+        String events = result.getResponse().getContentAsString();
+        assertThat(events).contains("id:6", "event:employee-change", "\"type\":\"SAVED\"", "\"employee\":{\"id\":1}");
+        assertThat(events).contains("\"type\":\"DELETED\"");
+        assertThat(events.indexOf("id:6")).isLessThan(events.indexOf("id:7"));
+    }
+
+    //Junit Test for a hole in the sequence
+    @Test
+    public void givenUncommittedGap_whenStreamChanges_thenHoldBackLaterChanges() throws Exception {
+        //given - precondition or setup
+        given(employeeChangeService.getChangesAfter(5L, EmployeeChangeController.BATCH_SIZE))
+                .willReturn(List.of(saved(6L), saved(8L)));
+        given(employeeChangeService.getChangesAfter(6L, EmployeeChangeController.BATCH_SIZE))
+                .willReturn(List.of(saved(8L)));
+
+        //when  - action or behaviour that we are going to test
+        result = mockMvc.perform(get("/api/employees/changes").param("after", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then - verify output
+        await().atMost(Duration.ofSeconds(5)).until(() -> result.getResponse().getContentAsString().contains("id:6"));
+        Thread.sleep(100);
+        assertThat(result.getResponse().getContentAsString()).doesNotContain("id:8");
+    }
+
+    //Junit Test for a subscription that hangs - the others keep streaming
+    @Test
+    public void givenStuckSubscription_whenStreamChanges_thenOtherSubscriptionsStillDelivered() throws Exception {
+        //given - precondition or setup
+        given(employeeChangeService.getChangesAfter(1L, EmployeeChangeController.BATCH_SIZE)).willAnswer(invocation -> {
+            release.await();
+            return List.of();
+        });
+        given(employeeChangeService.getChangesAfter(5L, EmployeeChangeController.BATCH_SIZE))
+                .willReturn(List.of(saved(6L)));
+        stuck = mockMvc.perform(get("/api/employees/changes").param("after", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //when  - action or behaviour that we are going to test
+        result = mockMvc.perform(get("/api/employees/changes").param("after", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then - verify output
+        await().atMost(Duration.ofSeconds(5)).until(() -> result.getResponse().getContentAsString().contains("id:6"));
+    }
+
+    //Junit Test for a Last-Event-ID below the retained changes
+    @Test
+    public void givenPurgedLastEventId_whenStreamChanges_thenSendResyncBeforeOldestChange() throws Exception {
+        //given - precondition or setup
+        given(employeeChangeService.getOldestSeq()).willReturn(100L);
+        given(employeeChangeService.getChangesAfter(99L, EmployeeChangeController.BATCH_SIZE))
+                .willReturn(List.of(saved(100L)));
+
+        //when  - action or behaviour that we are going to test
+        result = mockMvc.perform(get("/api/employees/changes").header("Last-Event-ID", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then - verify output
+        await().atMost(Duration.ofSeconds(5)).until(() -> result.getResponse().getContentAsString().contains("id:100"));
+        String events = result.getResponse().getContentAsString();
+        assertThat(events).contains("id:99", "event:resync");
+        assertThat(events.indexOf("event:resync")).isLessThan(events.indexOf("id:100"));
+        verify(employeeChangeService, never()).getChangesAfter(5L, EmployeeChangeController.BATCH_SIZE);
+    }
+
+    //Junit Test for a failing change query - the stream ends with the error
+    @Test
+    public void givenDatabaseUnavailable_whenStreamChanges_thenCompleteWithError() throws Exception {
+        //given - precondition or setup
+        given(employeeChangeService.getChangesAfter(5L, EmployeeChangeController.BATCH_SIZE))
+                .willThrow(new DataAccessResourceFailureException("connection refused"));
+
+        //when  - action or behaviour that we are going to test
+        result = mockMvc.perform(get("/api/employees/changes").param("after", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then - verify output
+        assertThat(result.getAsyncResult(5000)).isInstanceOf(DataAccessResourceFailureException.class);
+    }
+
+    private static EmployeeChange saved(long seq) {
+        return new EmployeeChange(seq, EmployeeChangeEvent.Type.SAVED, 1L, "{\"id\":1}", Instant.now());
+    }
+
+    private static EmployeeChange deleted(long seq) {
+        return new EmployeeChange(seq, EmployeeChangeEvent.Type.DELETED, 1L, null, Instant.now());
+    }
+}
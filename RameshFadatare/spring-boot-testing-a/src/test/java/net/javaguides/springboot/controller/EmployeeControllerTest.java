@@ -2,34 +2,61 @@ package net.javaguides.springboot.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguides.springboot.config.EmployeeMetrics;
+import net.javaguides.springboot.dto.BulkCreateResult;
+import net.javaguides.springboot.dto.EmployeeSummary;
+import net.javaguides.springboot.dto.EmployeeVersion;
+import net.javaguides.springboot.exception.ResourceNotFoundException;
 import net.javaguides.springboot.model.Employee;
 import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.service.EmployeeStreamService;
 import org.hamcrest.Matcher;
 import org.junit.jupiter.api.Test;
 import org.mockito.BDDMockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.ResultActions;
 
 import javax.xml.transform.Result;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.hamcrest.CoreMatchers.is;
-import static org.mockito.BDDMockito.willDoNothing;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 
 @WebMvcTest(EmployeeController.class)
+@Import(SimpleMeterRegistry.class)
 public class EmployeeControllerTest {
 
     @Autowired
@@ -38,9 +65,15 @@ public class EmployeeControllerTest {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeStreamService employeeStreamService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     //Junit Test for
     @Test
     public void givenEmployeeObject_whenSaveEmployee_thenReturnEmployeeObject() throws Exception {
@@ -66,6 +99,79 @@ public class EmployeeControllerTest {
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
     }
 
+    //Junit Test for create REST API with an email that is already taken
+    @Test
+    public void givenExistingEmail_whenSaveEmployee_thenReturnConflict() throws Exception {
+        //given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("Bheem")
+                .lastName("Shekhar")
+                .email("bheem@gmail.com")
+                .build();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willThrow(new ResourceNotFoundException("Employee already Exists with this email :" + employee.getEmail()));
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then - verify output
+        response.andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Employee already Exists with this email :" + employee.getEmail()));
+    }
+
+    //Junit Test for bulk create REST API with a JSON array body
+    @Test
+    public void givenEmployeeArray_whenCreateEmployees_thenReturnPerRowResults() throws Exception {
+        //given - precondition or setup
+        List<Employee> employeeList = List.of(
+                Employee.builder().firstName("bheem").lastName("shekhar").email("bheem@gmail.com").build(),
+                Employee.builder().firstName("raj").lastName("shekhar").email("raj@gmail.com").build());
+        given(employeeService.saveEmployees(any())).willReturn(List.of(
+                BulkCreateResult.created(0, 1L, "bheem@gmail.com"),
+                BulkCreateResult.duplicate(1, "raj@gmail.com")));
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employeeList)));
+
+        //then - verify output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[1].status", is("DUPLICATE")));
+    }
+
+    //Junit Test for bulk create REST API with a newline delimited JSON body
+    @Test
+    public void givenNdjsonEmployees_whenCreateEmployees_thenSaveAllRows() throws Exception {
+        //given - precondition or setup
+        Employee employee = Employee.builder().firstName("bheem").lastName("shekhar").email("bheem@gmail.com").build();
+        String line = objectMapper.writeValueAsString(employee);
+        given(employeeService.saveEmployees(any())).willAnswer(invocation -> {
+            List<Employee> chunk = invocation.getArgument(0);
+            List<BulkCreateResult> results = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(BulkCreateResult.created(i, (long) i + 1, chunk.get(i).getEmail()));
+            }
+            return results;
+        });
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(line + "\n" + line + "\n" + line + "\n"));
+
+        //then - verify output
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(3)))
+                .andExpect(jsonPath("$[2].index", is(2)));
+    }
+
     //Junit Test for
     @Test
     public void givenListOfEmployees_whenGetAllEmployees_thenReturnEmployeeList() throws Exception {
@@ -84,6 +190,156 @@ public class EmployeeControllerTest {
 
     }
 
+    //Junit Test for keyset paginated Get Employees REST API - first page
+    @Test
+    public void givenMoreEmployeesThanLimit_whenGetEmployeesPage_thenReturnPageWithNextCursor() throws Exception {
+        //given - precondition or setup
+        List<Employee> employeeList = new ArrayList<>();
+        employeeList.add(Employee.builder().id(1L).firstName("bheem").lastName("shekhar").email("bheem@gmail.com").build());
+        employeeList.add(Employee.builder().id(2L).firstName("raj").lastName("shekhar").email("raj@gmail.com").build());
+        employeeList.add(Employee.builder().id(3L).firstName("ravi").lastName("shekhar").email("ravi@gmail.com").build());
+        given(employeeService.getEmployeesAfter(0L, 3)).willReturn(employeeList);
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("limit", "2"));
+
+        //then - verify output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(2)))
+                .andExpect(jsonPath("$.nextCursor", is(EmployeeController.encodeCursor(2L))));
+    }
+
+    //Junit Test for keyset paginated Get Employees REST API - last page
+    @Test
+    public void givenCursor_whenGetEmployeesPage_thenReturnLastPageWithoutNextCursor() throws Exception {
+        //given - precondition or setup
+        List<Employee> employeeList = List.of(
+                Employee.builder().id(3L).firstName("ravi").lastName("shekhar").email("ravi@gmail.com").build());
+        given(employeeService.getEmployeesAfter(2L, 3)).willReturn(employeeList);
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("limit", "2")
+                .param("after", EmployeeController.encodeCursor(2L)));
+
+        //then - verify output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(1)))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    //Junit Test for keyset paginated Get Employees REST API - invalid cursor
+    @Test
+    public void givenInvalidCursor_whenGetEmployeesPage_thenReturnBadRequest() throws Exception {
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("limit", "2")
+                .param("after", "not-a-cursor"));
+
+        //then - verify output
+        response.andExpect(status().isBadRequest());
+    }
+
+    //Junit Test for the summaries REST API without a fieldset
+    @Test
+    public void givenSummaries_whenGetEmployeeSummaries_thenReturnIdAndName() throws Exception {
+        //given - precondition or setup
+        given(employeeService.getEmployeeSummariesAfter(0L, 3)).willReturn(List.of(
+                new EmployeeSummary(1L, "bheem", "shekhar"),
+                new EmployeeSummary(2L, "raj", "shekhar"),
+                new EmployeeSummary(3L, "ravi", "shekhar")));
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/summaries").param("limit", "2"));
+
+        //then - verify output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(2)))
+                .andExpect(jsonPath("$.content[0].firstName", is("bheem")))
+                .andExpect(jsonPath("$.content[0].email").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor", is(EmployeeController.encodeCursor(2L))));
+    }
+
+    //Junit Test for the summaries REST API with a sparse fieldset
+    @Test
+    public void givenFields_whenGetEmployeeSummaries_thenReturnOnlyThoseFields() throws Exception {
+        //given - precondition or setup
+        given(employeeService.getEmployeeFieldsAfter(Set.of("email"), 0L, 101))
+                .willReturn(List.of(Map.of("id", 1L, "email", "bheem@gmail.com")));
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/summaries").param("fields", "email"));
+
+        //then - verify output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].email", is("bheem@gmail.com")))
+                .andExpect(jsonPath("$.content[0].firstName").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    //Junit Test for the summaries REST API with an unknown field
+    @Test
+    public void givenUnknownField_whenGetEmployeeSummaries_thenReturnBadRequest() throws Exception {
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/summaries").param("fields", "email,salary"));
+
+        //then - verify output
+        response.andExpect(status().isBadRequest());
+    }
+
+    //Junit Test for streaming Get Employees REST API
+    @Test
+    public void givenEmployees_whenStreamAllEmployees_thenReturnNewlineDelimitedJson() throws Exception {
+        //given - precondition or setup
+        Employee employee = Employee.builder().id(1L).firstName("bheem").lastName("shekhar").email("bheem@gmail.com").build();
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(employee);
+            consumer.accept(employee);
+            return null;
+        }).given(employeeService).streamAllEmployees(any());
+
+        //when  - action or behaviour that we are going to test
+        MvcResult result = mockMvc.perform(get("/api/employees/stream").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then - verify output
+        String line = objectMapper.writeValueAsString(employee);
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(line + "\n" + line + "\n"));
+    }
+
+    //Junit Test for streaming Get Employees REST API as a JSON array
+    @Test
+    public void givenEmployees_whenStreamAllEmployeesAsJson_thenReturnJsonArray() throws Exception {
+        //given - precondition or setup
+        String json = "[{\"id\":1,\"firstName\":\"bheem\",\"lastName\":\"shekhar\",\"email\":\"bheem@gmail.com\",\"version\":0}]";
+        willAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write(json.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).given(employeeStreamService).writeJsonArray(any());
+
+        //when  - action or behaviour that we are going to test
+        MvcResult result = mockMvc.perform(get("/api/employees/stream").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then - verify output
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].email", is("bheem@gmail.com")));
+        verify(employeeService, times(0)).streamAllEmployees(any());
+    }
+
     //Positive scenario - valid Employee Id
     //Junit Test for Get Employee By Id REST API
     @Test
@@ -143,9 +399,8 @@ public class EmployeeControllerTest {
                 .email("golla@gmail.com")
                 .build();
 
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(savedEmployee));
-        given(employeeService.updateEmployee(any(Employee.class)))
-                .willAnswer((invocation) -> invocation.getArgument(0));
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class)))
+                .willAnswer((invocation) -> Optional.of(invocation.getArgument(1)));
 
         //when  - action or behaviour that we are going to test
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
@@ -177,7 +432,7 @@ public class EmployeeControllerTest {
                 .email("golla@gmail.com")
                 .build();
 
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.empty());
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class))).willReturn(Optional.empty());
 
         //when  - action or behaviour that we are going to test
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
@@ -189,19 +444,254 @@ public class EmployeeControllerTest {
                 .andDo(print());
     }
 
+    //Junit Test for Update Employee REST API - concurrent modification
+    @Test
+    public void givenStaleVersion_whenUpdateEmployee_thenReturnConflict() throws Exception {
+        //given - precondition or setup
+        long employeeId = 1L;
+        Employee updateEmployee = Employee.builder()
+                .firstName("Shekhar")
+                .lastName("Bheem")
+                .email("golla@gmail.com")
+                .version(1L)
+                .build();
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, employeeId));
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateEmployee)));
+
+        //then - verify output
+        response.andExpect(status().isConflict())
+                .andDo(print());
+    }
+
+    //Junit Test for GET employee by id with a current ETag
+    @Test
+    public void givenCurrentETag_whenGetEmployeeById_thenReturnNotModified() throws Exception {
+        //given - precondition or setup
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .id(employeeId)
+                .firstName("Bheem")
+                .lastName("Shekhar")
+                .email("bheem@gmail.com")
+                .version(3L)
+                .build();
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+
+        //when  - action or behaviour that we are going to test
+        ResultActions first = mockMvc.perform(get("/api/employees/{id}", employeeId));
+        ResultActions revalidated = mockMvc.perform(get("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+
+        //then - verify output
+        first.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+        revalidated.andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+    }
+
+    //Junit Test for update employee with a stale If-Match
+    @Test
+    public void givenStaleIfMatch_whenUpdateEmployee_thenReturnPreconditionFailed() throws Exception {
+        //given - precondition or setup
+        long employeeId = 1L;
+        Employee updateEmployee = Employee.builder()
+                .firstName("Shekhar")
+                .lastName("Bheem")
+                .email("golla@gmail.com")
+                .build();
+        given(employeeService.updateEmployee(eq(employeeId), argThat(employee -> employee.getVersion() == 2L)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, employeeId));
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateEmployee)));
+
+        //then - verify output
+        response.andExpect(status().isPreconditionFailed())
+                .andDo(print());
+    }
+
+    //Junit Test for update employee with a current If-Match
+    @Test
+    public void givenCurrentIfMatch_whenUpdateEmployee_thenReturnNewETag() throws Exception {
+        //given - precondition or setup
+        long employeeId = 1L;
+        Employee updateEmployee = Employee.builder()
+                .firstName("Shekhar")
+                .lastName("Bheem")
+                .email("golla@gmail.com")
+                .build();
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class)))
+                .willAnswer(invocation -> {
+                    Employee employee = invocation.getArgument(1);
+                    employee.setVersion(employee.getVersion() + 1);
+                    return Optional.of(employee);
+                });
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateEmployee)));
+
+        //then - verify output
+        response.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andDo(print());
+    }
+
+    //Junit Test for delete employee with If-Match
+    @Test
+    public void givenIfMatch_whenDeleteEmployee_thenDeleteOnlyThatVersion() throws Exception {
+        //given - precondition or setup
+        long employeeId = 1L;
+        given(employeeService.deleteEmployee(employeeId, 4L)).willReturn(true);
+        given(employeeService.deleteEmployee(employeeId, 3L))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, employeeId));
+
+        //when  - action or behaviour that we are going to test
+        ResultActions current = mockMvc.perform(delete("/api/employees/{id}", employeeId).header(HttpHeaders.IF_MATCH, "\"4\""));
+        ResultActions stale = mockMvc.perform(delete("/api/employees/{id}", employeeId).header(HttpHeaders.IF_MATCH, "\"3\""));
+
+        //then - verify output
+        current.andExpect(status().isNoContent());
+        stale.andExpect(status().isPreconditionFailed());
+    }
+
+    //Junit Test for employees page with a current collection ETag
+    @Test
+    public void givenUnchangedPage_whenGetEmployeesPage_thenReturnNotModifiedWithoutLoadingEmployees() throws Exception {
+        //given - precondition or setup
+        List<Employee> employees = List.of(
+                Employee.builder().id(1L).firstName("Bheem").lastName("Shekhar").email("bheem@gmail.com").version(0L).build(),
+                Employee.builder().id(2L).firstName("Tony").lastName("Stark").email("tony@gmail.com").version(5L).build());
+        given(employeeService.getEmployeesAfter(0L, 3)).willReturn(employees);
+        given(employeeService.getEmployeeVersionsAfter(0L, 3))
+                .willReturn(List.of(new EmployeeVersion(1L, 0L), new EmployeeVersion(2L, 5L)));
+        String eTag = mockMvc.perform(get("/api/employees").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("limit", "2")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag));
+
+        //then - verify output
+        response.andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(employeeService, times(1)).getEmployeesAfter(0L, 3);
+    }
+
     //Junit Test for Delete Employee
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenReturnStatusCodeSuccess() throws Exception {
         //given - precondition or setup
         long employeeId = 1L;
-        willDoNothing().given(employeeService).deleteEmployee(employeeId);
+        given(employeeService.deleteEmployee(employeeId)).willReturn(true);
 
         //when  - action or behaviour that we are going to test
         ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId));
 
+        //then - verify output
+        response.andExpect(status().isNoContent())
+                .andDo(print());
+
+    }
+
+    //Junit Test for Delete Employee - missing Employee
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturnNotFound() throws Exception {
+        //given - precondition or setup
+        long employeeId = 1L;
+        given(employeeService.deleteEmployee(employeeId)).willReturn(false);
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId));
+
+        //then - verify output
+        response.andExpect(status().isNotFound())
+                .andDo(print());
+        assertThat(meterRegistry.counter(EmployeeMetrics.NOT_FOUND, "operation", "delete").count()).isEqualTo(1);
+    }
+
+    //Junit Test for bulk Delete Employees
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenReturnDeletedCount() throws Exception {
+        //given - precondition or setup
+        given(employeeService.deleteEmployees(List.of(1L, 2L, 3L))).willReturn(2);
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(delete("/api/employees").param("ids", "1,2,3"));
+
         //then - verify output
         response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.requested", is(3)))
+                .andExpect(jsonPath("$.deleted", is(2)));
+    }
+
+    //Junit Test for bulk Delete Employees with too many ids
+    @Test
+    public void givenTooManyEmployeeIds_whenDeleteEmployees_thenReturnBadRequest() throws Exception {
+        //given - precondition or setup
+        StringBuilder ids = new StringBuilder("1");
+        for (int id = 2; id <= EmployeeController.MAX_DELETE_IDS + 1; id++) {
+            ids.append(',').append(id);
+        }
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(delete("/api/employees").param("ids", ids.toString()));
+
+        //then - verify output
+        response.andExpect(status().isBadRequest())
                 .andDo(print());
+        verify(employeeService, times(0)).deleteEmployees(any());
+    }
 
+    //Junit Test for batch get Employees by ids
+    @Test
+    public void givenEmployeeIds_whenGetEmployeesByIds_thenReturnEmployeesList() throws Exception {
+        //given - precondition or setup
+        List<Employee> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(Employee.builder().id(2L).firstName("Tony").lastName("Stark").email("tony@gmail.com").version(0L).build());
+        listOfEmployees.add(Employee.builder().id(1L).firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").version(0L).build());
+        given(employeeService.getEmployeesByIds(List.of(2L, 1L, 7L))).willReturn(listOfEmployees);
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("ids", "2,1,7"));
+
+        //then - verify output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].id", is(2)))
+                .andExpect(jsonPath("$[1].id", is(1)));
+    }
+
+    //Junit Test for batch get Employees with too many ids
+    @Test
+    public void givenTooManyEmployeeIds_whenGetEmployeesByIds_thenReturnBadRequest() throws Exception {
+        //given - precondition or setup
+        StringBuilder ids = new StringBuilder("1");
+        for (int id = 2; id <= EmployeeController.MAX_LOOKUP_IDS + 1; id++) {
+            ids.append(',').append(id);
+        }
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("ids", ids.toString()));
+
+        //then - verify output
+        response.andExpect(status().isBadRequest())
+                .andDo(print());
+        verify(employeeService, times(0)).getEmployeesByIds(any());
     }
 }
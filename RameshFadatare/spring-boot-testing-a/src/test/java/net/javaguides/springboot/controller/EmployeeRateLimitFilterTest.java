@@ -0,0 +1,254 @@
+package net.javaguides.springboot.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import net.javaguides.springboot.config.EmployeeMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeRateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmployeeRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new EmployeeRateLimitFilter();
+        filter.meterRegistry = meterRegistry;
+        //slow refill, so a test never sees a bucket fill up again between two requests
+        filter.readRate = 10;
+        filter.readClientRate = 2;
+        filter.writeRate = 10;
+        filter.writeClientRate = 2;
+        filter.readMaxConcurrency = 4;
+        filter.writeMaxConcurrency = 4;
+        filter.readLatencyTarget = Duration.ofMillis(50);
+        filter.writeLatencyTarget = Duration.ofMillis(50);
+        //MockHttpServletRequest comes from 127.0.0.1, the tests name their clients with the header
+        filter.trustedProxies = Set.of("127.0.0.1");
+        filter.afterPropertiesSet();
+    }
+
+    // JUnit test for a client over its rate
+    @Test
+    public void givenClientBucketExhausted_whenRequest_thenTooManyRequestsForThatClientOnly() throws Exception {
+
+        //given - precondition or setup
+        assertThat(perform("GET", "sync").getStatus()).isEqualTo(200);
+        assertThat(perform("GET", "sync").getStatus()).isEqualTo(200);
+
+        //when  - action or behaviour that we are going to test
+        MockHttpServletResponse rejected = perform("GET", "sync");
+        MockHttpServletResponse other = perform("GET", "browser");
+
+        //then - verify output
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected.getContentAsString()).isEqualTo("Too many requests, retry after 1s");
+        assertThat(other.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get(EmployeeMetrics.RATE_LIMIT_REJECTIONS)
+                .tags("class", "read", "reason", "client").counter().count()).isEqualTo(1);
+    }
+
+    // JUnit test for a client header sent from an address that is not a trusted proxy
+    @Test
+    public void givenUntrustedAddress_whenClientHeaderChanges_thenSameBucket() throws Exception {
+
+        //given - precondition or setup
+        String address = "10.0.0.9";
+
+        //when  - action or behaviour that we are going to test
+        int first = perform(request("GET", "/api/employees", "a", address)).getStatus();
+        int second = perform(request("GET", "/api/employees", "b", address)).getStatus();
+        int third = perform(request("GET", "/api/employees", "c", address)).getStatus();
+
+        //then - verify output
+        assertThat(first).isEqualTo(200);
+        assertThat(second).isEqualTo(200);
+        assertThat(third).isEqualTo(429);
+        assertThat(meterRegistry.get(EmployeeMetrics.RATE_LIMIT_CLIENTS).tag("class", "read").gauge().value())
+                .isEqualTo(1);
+    }
+
+    // JUnit test for writes exhausting their budget
+    @Test
+    public void givenWriteBudgetExhausted_whenRead_thenReadIsServed() throws Exception {
+
+        //given - precondition or setup
+        for (int i = 0; i < 10; i++) {
+            perform("POST", "sync" + i);
+        }
+
+        //when  - action or behaviour that we are going to test
+        MockHttpServletResponse write = perform("PUT", "other");
+        MockHttpServletResponse read = perform("GET", "other");
+
+        //then - verify output
+        assertThat(write.getStatus()).isEqualTo(429);
+        assertThat(meterRegistry.get(EmployeeMetrics.RATE_LIMIT_REJECTIONS)
+                .tags("class", "write", "reason", "global").counter().count()).isEqualTo(1);
+        assertThat(read.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get(EmployeeMetrics.RATE_LIMIT_TOKENS).tag("class", "read").gauge().value())
+                .isLessThan(10);
+    }
+
+    // JUnit test for load shedding on slow requests
+    @Test
+    public void givenRequestsSlowerThanTarget_whenLimitReached_thenTooManyRequests() throws Exception {
+
+        //given - precondition or setup
+        MockFilterChain slow = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                sleep(60);
+            }
+        };
+        perform("GET", "a", slow);
+        assertThat(gauge(EmployeeMetrics.CONCURRENCY_LIMIT, "read")).isEqualTo(1);
+
+        //when  - action or behaviour that we are going to test
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        MockHttpServletResponse outer = perform("GET", "b", new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                assertThat(gauge(EmployeeMetrics.CONCURRENCY_IN_FLIGHT, "read")).isEqualTo(1);
+                nested.set(perform("GET", "c"));
+            }
+        });
+
+        //then - verify output
+        assertThat(outer.getStatus()).isEqualTo(200);
+        assertThat(nested.get().getStatus()).isEqualTo(429);
+        assertThat(meterRegistry.get(EmployeeMetrics.RATE_LIMIT_REJECTIONS)
+                .tags("class", "read", "reason", "concurrency").counter().count()).isEqualTo(1);
+        assertThat(gauge(EmployeeMetrics.CONCURRENCY_IN_FLIGHT, "read")).isZero();
+        //the rejected request was not charged to its client
+        assertThat(perform("GET", "c").getStatus()).isEqualTo(200);
+        assertThat(perform("GET", "c").getStatus()).isEqualTo(200);
+    }
+
+    // JUnit test for bulk writes - a slow import does not shrink the limit of single-row writes
+    @Test
+    public void givenSlowBulkWrite_whenCompleted_thenWriteLimitUnchanged() throws Exception {
+
+        //given - precondition or setup
+        MockFilterChain slow = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                sleep(60);
+            }
+        };
+
+        //when  - action or behaviour that we are going to test
+        MockHttpServletResponse batch = perform(request("POST", "/api/employees/batch", "sync", "127.0.0.1"), slow);
+        MockHttpServletRequest delete = request("DELETE", "/api/employees", "sync", "127.0.0.1");
+        delete.setParameter("ids", "1,2");
+        MockHttpServletResponse bulkDelete = perform(delete, slow);
+
+        //then - verify output
+        assertThat(batch.getStatus()).isEqualTo(200);
+        assertThat(bulkDelete.getStatus()).isEqualTo(200);
+        assertThat(gauge(EmployeeMetrics.CONCURRENCY_LIMIT, "write")).isEqualTo(2);
+        //60ms is well within the bulk latency target, the fully used bulk limit grew by one
+        assertThat(gauge(EmployeeMetrics.CONCURRENCY_LIMIT, "bulk")).isEqualTo(3);
+        assertThat(meterRegistry.get(EmployeeMetrics.RATE_LIMIT_TOKENS).tag("class", "write").gauge().value())
+                .isEqualTo(10);
+    }
+
+    // JUnit test for the limit growing back
+    @Test
+    public void givenFastRequestsUsingTheLimit_whenCompleted_thenLimitIncreases() {
+
+        //given - precondition or setup
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(2, 1, 4, Duration.ofMillis(50).toNanos());
+        limit.tryAcquire();
+        limit.tryAcquire();
+
+        //when  - action or behaviour that we are going to test
+        limit.release(Duration.ofMillis(5).toNanos(), false);
+        int afterFast = limit.limit();
+        limit.release(Duration.ofMillis(5).toNanos(), false);
+        int afterIdle = limit.limit();
+
+        //then - verify output
+        assertThat(afterFast).isEqualTo(3);
+        assertThat(afterIdle).isEqualTo(3);
+        assertThat(limit.tryAcquire()).isTrue();
+        limit.release(-1, true);
+        assertThat(limit.limit()).isEqualTo(2);
+    }
+
+    // JUnit test for recovery from the minimum limit
+    @Test
+    public void givenLimitAtMinimum_whenFastRequests_thenLimitRecovers() {
+
+        //given - precondition or setup
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(2, 1, 4, Duration.ofMillis(50).toNanos());
+        limit.tryAcquire();
+        limit.release(Duration.ofMillis(80).toNanos(), false);
+        assertThat(limit.limit()).isEqualTo(1);
+
+        //when  - action or behaviour that we are going to test
+        for (int i = 0; i < 3; i++) {
+            limit.tryAcquire();
+            limit.release(Duration.ofMillis(5).toNanos(), false);
+        }
+
+        //then - verify output
+        assertThat(limit.limit()).isGreaterThan(1);
+        assertThat(limit.inFlight()).isZero();
+    }
+
+    private double gauge(String name, String budget) {
+        return meterRegistry.get(name).tag("class", budget).gauge().value();
+    }
+
+    private MockHttpServletResponse perform(String method, String client) {
+        return perform(method, client, new MockFilterChain());
+    }
+
+    private MockHttpServletResponse perform(String method, String client, MockFilterChain chain) {
+        return perform(request(method, "/api/employees", client, "127.0.0.1"), chain);
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) {
+        return perform(request, new MockFilterChain());
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, String client, String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.addHeader("X-Client-Id", client);
+        request.setRemoteAddr(address);
+        return request;
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request, MockFilterChain chain) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, chain);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+        return response;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.dto.EmployeeSearchHit;
+import net.javaguides.springboot.dto.EmployeeSearchResult;
+import net.javaguides.springboot.service.EmployeeSearchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EmployeeSearchController.class)
+public class EmployeeSearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeSearchService employeeSearchService;
+
+    //Junit Test for search REST API
+    @Test
+    public void givenQuery_whenSearchEmployees_thenReturnRankedHits() throws Exception {
+        //given - precondition or setup
+        given(employeeSearchService.search("bhe", EmployeeSearchController.MAX_HITS)).willReturn(new EmployeeSearchResult(
+                List.of(new EmployeeSearchHit(1L, "Bheem", "Shekhar", "bheem@gmail.com", 4)), false));
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/search")
+                .param("q", "bhe")
+                .param("limit", "500"));
+
+        //then - verify output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.partial", is(false)))
+                .andExpect(jsonPath("$.hits.size()", is(1)))
+                .andExpect(jsonPath("$.hits[0].firstName", is("Bheem")))
+                .andExpect(jsonPath("$.hits[0].score", is(4)));
+    }
+
+    //Junit Test for search REST API - blank query
+    @Test
+    public void givenBlankQuery_whenSearchEmployees_thenReturnBadRequest() throws Exception {
+        //given - precondition or setup
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/search").param("q", " "));
+
+        //then - verify output
+        response.andExpect(status().isBadRequest());
+    }
+}
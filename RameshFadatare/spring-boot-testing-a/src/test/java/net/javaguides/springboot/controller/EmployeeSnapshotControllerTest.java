@@ -0,0 +1,76 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.dto.SnapshotResult;
+import net.javaguides.springboot.service.EmployeeSnapshotService;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.channels.ReadableByteChannel;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = EmployeeSnapshotController.class)
+@TestPropertySource(properties = "employee.snapshot.endpoints.enabled=true")
+public class EmployeeSnapshotControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeSnapshotService employeeSnapshotService;
+
+    //Junit Test for import snapshot REST API
+    @Test
+    public void givenSnapshot_whenImportSnapshot_thenReturnImportedRows() throws Exception {
+        //given - precondition or setup
+        given(employeeSnapshotService.importSnapshot(any(ReadableByteChannel.class)))
+                .willReturn(SnapshotResult.of(3, 120, 1_000_000));
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/admin/employees/snapshot")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(new byte[120]));
+
+        //then - verify output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(3))
+                .andExpect(jsonPath("$.bytes").value(120));
+    }
+
+    @Nested
+    @TestPropertySource(properties = "employee.snapshot.endpoints.enabled=false")
+    class Disabled {
+
+        //the enclosing instance's MockMvc belongs to the enabled context
+        @Autowired
+        private MockMvc disabledMockMvc;
+
+        //Junit Test for the snapshot endpoints when they are not enabled
+        @Test
+        public void givenEndpointsDisabled_whenImportSnapshot_thenReturn404() throws Exception {
+            //given - precondition or setup
+
+            //when  - action or behaviour that we are going to test
+            ResultActions response = disabledMockMvc.perform(post("/api/admin/employees/snapshot")
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .content(new byte[120]));
+
+            //then - verify output
+            response.andDo(print())
+                    .andExpect(status().isNotFound());
+        }
+    }
+}
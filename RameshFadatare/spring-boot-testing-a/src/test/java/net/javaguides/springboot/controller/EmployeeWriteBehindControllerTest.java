@@ -0,0 +1,104 @@
+package net.javaguides.springboot.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.dto.EmployeeWriteStatus;
+import net.javaguides.springboot.exception.WriteQueueFullException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeWriteBehindService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = EmployeeWriteBehindController.class, properties = "employee.write-behind.enabled=true")
+public class EmployeeWriteBehindControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeWriteBehindService employeeWriteBehindService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Employee employee = Employee.builder()
+            .firstName("Bheem")
+            .lastName("Shekhar")
+            .email("bheem@gmail.com")
+            .build();
+
+    //Junit Test for write-behind create REST API
+    @Test
+    public void givenEmployeeObject_whenCreateEmployee_thenReturnAccepted() throws Exception {
+        //given - precondition or setup
+        given(employeeWriteBehindService.submitCreate(any(Employee.class)))
+                .willReturn(EmployeeWriteStatus.queued("t-1", null));
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees/write-behind")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then - verify output
+        response.andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/employees/write-behind/status/t-1"))
+                .andExpect(jsonPath("$.trackingId", is("t-1")))
+                .andExpect(jsonPath("$.state", is("QUEUED")));
+    }
+
+    //Junit Test for write-behind update REST API - queue full
+    @Test
+    public void givenFullQueue_whenUpdateEmployee_thenReturnServiceUnavailable() throws Exception {
+        //given - precondition or setup
+        given(employeeWriteBehindService.submitUpdate(eq(1L), any(Employee.class)))
+                .willThrow(new WriteQueueFullException("Write queue is full, retry later"));
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(put("/api/employees/write-behind/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then - verify output
+        response.andDo(print())
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    //Junit Test for write status REST API
+    @Test
+    public void givenTrackingId_whenGetStatus_thenReturnStatus() throws Exception {
+        //given - precondition or setup
+        given(employeeWriteBehindService.getStatus("t-1"))
+                .willReturn(Optional.of(EmployeeWriteStatus.committed("t-1", 7L)));
+
+        //when  - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/write-behind/status/{trackingId}", "t-1"));
+
+        //then - verify output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state", is("COMMITTED")))
+                .andExpect(jsonPath("$.employeeId", is(7)));
+        mockMvc.perform(get("/api/employees/write-behind/status/{trackingId}", "unknown"))
+                .andExpect(status().isNotFound());
+    }
+}
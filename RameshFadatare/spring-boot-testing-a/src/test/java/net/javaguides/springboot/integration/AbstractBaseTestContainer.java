@@ -1,31 +1,97 @@
 package net.javaguides.springboot.integration;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
 import org.testcontainers.containers.MySQLContainer;
-import org.testcontainers.junit.jupiter.Container;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//we are making this class as abstract and extending from other integration classes
+//By this we are achieving Singleton containers pattern
+//
+//Parallel execution: test classes run concurrently (junit-platform.properties), the methods of one class one after
+//another. Each Spring application context gets a database of its own, ems_<surefire fork>_<n>, so neither concurrent
+//classes nor parallel Surefire forks see each other's rows. Classes with the same configuration share the cached
+//context and with it the database; the @DynamicPropertySource below is the same for every subclass and is part of
+//the context cache key.
+//Rows are cleaned up with truncateEmployeeTables() or, in @DataJpaTest classes, by the rolled back test transaction.
+//Without Docker an in-memory H2 database stands in for MySQL.
 public abstract class AbstractBaseTestContainer {
 
-    //we are making this class as abstract and extending from other integration classes
-    //By this we are achieving Singleton containers pattern
+    static final String WORKER = System.getProperty("test.worker", "1");
+
+    static final AtomicInteger DATABASES = new AtomicInteger();
 
-    static final MySQLContainer MY_SQL_CONTAINER;
+    static final MySQLContainer<?> MY_SQL_CONTAINER;
 
     static {
-        MY_SQL_CONTAINER = (MySQLContainer) new MySQLContainer("mysql:8.0")
-                .withUsername("username")
-                .withPassword("password")
-                .withDatabaseName("ems");
+        if (DockerClientFactory.instance().isDockerAvailable()) {
+            //withReuse keeps one container for all forks and builds when testcontainers.reuse.enable=true is set in
+            //~/.testcontainers.properties; otherwise every fork starts its own
+            MY_SQL_CONTAINER = new MySQLContainer<>("mysql:8.0")
+                    .withUsername("username")
+                    .withPassword("password")
+                    .withDatabaseName("ems")
+                    .withReuse(true);
 
-        //Manually we are starting container; so we can remove @TestContainer annotation at integration class level
-        MY_SQL_CONTAINER.start();
+            //Manually we are starting container; so we can remove @TestContainer annotation at integration class level
+            MY_SQL_CONTAINER.start();
+        } else {
+            MY_SQL_CONTAINER = null;
+        }
     }
 
+    //Called once for every application context that is created, not per test class
     @DynamicPropertySource
     public static void dynamicePropertySource(DynamicPropertyRegistry registry){
-        registry.add("spring.datasource.url", MY_SQL_CONTAINER::getJdbcUrl);
-        registry.add("spring.datasource.username",MY_SQL_CONTAINER::getUsername);
-        registry.add("spring.datasource.password",MY_SQL_CONTAINER::getPassword);
+        String database = "ems_" + WORKER + "_" + DATABASES.incrementAndGet();
+        if (MY_SQL_CONTAINER == null) {
+            registry.add("spring.datasource.url", () -> "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1");
+            registry.add("spring.datasource.username", () -> "sa");
+            registry.add("spring.datasource.password", () -> "");
+            return;
+        }
+        createDatabase(database);
+        registry.add("spring.datasource.url", () -> mySqlUrl(database)
+                + "?useSSL=false&allowPublicKeyRetrieval=true&useCursorFetch=true&rewriteBatchedStatements=true");
+        registry.add("spring.datasource.username", MY_SQL_CONTAINER::getUsername);
+        registry.add("spring.datasource.password", MY_SQL_CONTAINER::getPassword);
+    }
+
+    //TRUNCATE drops the rows in one statement, deleteAll() loads and deletes them one by one. It bypasses the
+    //application, so the employee caches and the Hibernate second-level cache are cleared as well
+    protected static void truncateEmployeeTables(ApplicationContext context){
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("truncate table employees");
+        jdbcTemplate.execute("truncate table employee_changes");
+        CacheManager cacheManager = context.getBean(CacheManager.class);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        context.getBean(EntityManagerFactory.class).getCache().evictAll();
+    }
+
+    private static String mySqlUrl(String database){
+        return "jdbc:mysql://" + MY_SQL_CONTAINER.getHost() + ":"
+                + MY_SQL_CONTAINER.getMappedPort(MySQLContainer.MYSQL_PORT) + "/" + database;
+    }
+
+    //The container's user only owns the ems database; root (same password) creates the others
+    private static void createDatabase(String database){
+        try (Connection connection = DriverManager.getConnection(mySqlUrl("") + "?useSSL=false&allowPublicKeyRetrieval=true",
+                "root", MY_SQL_CONTAINER.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("create database if not exists " + database);
+            statement.execute("grant all privileges on " + database + ".* to '" + MY_SQL_CONTAINER.getUsername() + "'@'%'");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create test database " + database, e);
+        }
     }
 }
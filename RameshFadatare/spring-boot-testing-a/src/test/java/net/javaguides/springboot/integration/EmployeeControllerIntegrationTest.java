@@ -195,7 +195,7 @@ public class EmployeeControllerIntegrationTest {
         ResultActions response = mockMvc.perform(delete("/api/employees/{id}", savedEmployee.getId()));
 
         //then - verify output
-        response.andExpect(status().isOk())
+        response.andExpect(status().isNoContent())
                 .andDo(print());
 
     }
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.DynamicPropertyRegistrar;
 import org.springframework.test.context.DynamicPropertyRegistry;
@@ -25,6 +26,7 @@ import java.util.List;
 import static org.hamcrest.CoreMatchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -42,9 +44,12 @@ public class EmployeeControllerIntgTestWithTestContainer extends  AbstractBaseTe
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ApplicationContext applicationContext;
+
     @BeforeEach
     void setUp(){
-        employeeRepository.deleteAll();
+        truncateEmployeeTables(applicationContext);
     }
 
     @DisplayName("Integration Testing: SaveEmployee")
@@ -155,20 +160,23 @@ public class EmployeeControllerIntgTestWithTestContainer extends  AbstractBaseTe
                 .andDo(print())
                 .andExpect(jsonPath("$.firstName", is(updateEmployee.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(updateEmployee.getLastName())))
-                .andExpect(jsonPath("$.email", is(updateEmployee.getEmail())));
+                .andExpect(jsonPath("$.email", is(updateEmployee.getEmail())))
+                //no version was sent, the response still carries the new one for the next If-Match
+                .andExpect(jsonPath("$.version", is(savedEmployee.getVersion().intValue() + 1)))
+                .andExpect(header().string("ETag", "\"" + (savedEmployee.getVersion() + 1) + "\""));
     }
 
     @DisplayName("Junit Test for Update Employee REST API - Negative Scenario")
     @Test
     public void givenUpdatedEmployee_whenUpdateEmployee_thenReturnNotFound() throws Exception {
         //given - precondition or setup
-        long employeeId = 1L;
         Employee savedEmployee = Employee.builder()
                 .firstName("Bheem")
                 .lastName("Shekhar")
                 .email("bheem@gmail.com")
                 .build();
         employeeRepository.save(savedEmployee);
+        long employeeId = savedEmployee.getId() + 1;
 
         Employee updateEmployee = Employee.builder()
                 .firstName("Shekhar")
@@ -201,7 +209,7 @@ public class EmployeeControllerIntgTestWithTestContainer extends  AbstractBaseTe
         ResultActions response = mockMvc.perform(delete("/api/employees/{id}", savedEmployee.getId()));
 
         //then - verify output
-        response.andExpect(status().isOk())
+        response.andExpect(status().isNoContent())
                 .andDo(print());
 
     }
@@ -15,7 +15,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
-public class EmployeeRepositoryIntegrationTest {
+public class EmployeeRepositoryIntegrationTest extends AbstractBaseTestContainer {
 
     @Autowired
     EmployeeRepository employeeRepository;
@@ -0,0 +1,122 @@
+package net.javaguides.springboot.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguides.springboot.config.CacheConfig;
+import net.javaguides.springboot.dto.BulkCreateResult;
+import net.javaguides.springboot.event.EmployeeChangeEvent;
+import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.service.EmployeeChangeService;
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.service.impl.EmployeeChangeServiceImpl;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+//Not transactional: the change log is written when the service's own transactions commit
+@DataJpaTest
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, JdbcTemplateAutoConfiguration.class})
+@Import({EmployeeServiceImpl.class, EmployeeChangeServiceImpl.class, CacheConfig.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EmployeeChangeRepositoryTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeChangeService employeeChangeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeChangeRepository employeeChangeRepository;
+
+    @AfterEach
+    public void tearDown(){
+        employeeRepository.deleteAllInBatch();
+        employeeChangeRepository.deleteAllInBatch();
+    }
+
+    //Junit Test for the change log of save, update and delete
+    @Test
+    public void givenEmployeeWrites_whenGetChangesAfter_thenReturnChangesInOrder(){
+        //given - precondition or setup
+        Employee employee = employeeService.saveEmployee(Employee.builder()
+                .firstName("Bheem")
+                .lastName("Shekhar")
+                .email("bheem@gmail.com")
+                .build());
+        employeeService.updateEmployee(employee.getId(), Employee.builder()
+                .firstName("Ram")
+                .lastName("Shekhar")
+                .email("ram@gmail.com")
+                .build());
+        employeeService.deleteEmployee(employee.getId());
+
+        //when  - action or behaviour that we are going to test
+        List<EmployeeChange> changes = employeeChangeService.getChangesAfter(0L, 10);
+
+        //then - verify output
+        assertThat(changes).extracting(EmployeeChange::getType).containsExactly(
+                EmployeeChangeEvent.Type.SAVED, EmployeeChangeEvent.Type.SAVED, EmployeeChangeEvent.Type.DELETED);
+        assertThat(changes).extracting(EmployeeChange::getEmployeeId).containsOnly(employee.getId());
+        assertThat(changes.get(1).getEmployee()).contains("\"firstName\":\"Ram\"");
+        assertThat(changes.get(2).getEmployee()).isNull();
+        assertThat(employeeChangeService.getChangesAfter(changes.get(0).getSeq(), 10)).hasSize(2);
+        assertThat(employeeChangeService.getOldestSeq()).isEqualTo(changes.get(0).getSeq());
+    }
+
+    //Junit Test for the change log of bulk saveEmployees and deleteEmployees - one row per employee, in order
+    @Test
+    public void givenBulkWrites_whenGetChangesAfter_thenReturnOneChangePerEmployee(){
+        //given - precondition or setup
+        List<BulkCreateResult> results = employeeService.saveEmployees(IntStream.range(0, 3)
+                .mapToObj(i -> Employee.builder().firstName("First" + i).lastName("Last" + i).email("bulk" + i + "@gmail.com").build())
+                .toList());
+        List<Long> ids = results.stream().map(BulkCreateResult::id).toList();
+        employeeService.deleteEmployees(ids);
+
+        //when  - action or behaviour that we are going to test
+        List<EmployeeChange> changes = employeeChangeService.getChangesAfter(0L, 10);
+
+        //then - verify output
+        assertThat(changes).hasSize(6);
+        assertThat(changes).extracting(EmployeeChange::getEmployeeId).containsExactlyElementsOf(
+                Stream.concat(ids.stream(), ids.stream()).toList());
+        assertThat(changes.subList(0, 3)).extracting(EmployeeChange::getType).containsOnly(EmployeeChangeEvent.Type.SAVED);
+        assertThat(changes.subList(3, 6)).extracting(EmployeeChange::getType).containsOnly(EmployeeChangeEvent.Type.DELETED);
+        assertThat(changes.get(0).getEmployee()).contains("\"email\":\"bulk0@gmail.com\"");
+        assertThat(changes.get(0).getChangedAt()).isNotNull();
+    }
+
+    //Junit Test for a rejected write
+    @Test
+    public void givenDuplicateEmail_whenSaveEmployee_thenNoChangeIsLogged(){
+        //given - precondition or setup
+        employeeService.saveEmployee(Employee.builder().firstName("Bheem").lastName("Shekhar").email("bheem@gmail.com").build());
+
+        //when  - action or behaviour that we are going to test
+        assertThrows(ResourceNotFoundException.class, () -> employeeService.saveEmployee(
+                Employee.builder().firstName("Ram").lastName("Shekhar").email("bheem@gmail.com").build()));
+
+        //then - verify output
+        assertThat(employeeChangeService.getChangesAfter(0L, 10)).hasSize(1);
+    }
+}
@@ -1,5 +1,7 @@
 package net.javaguides.springboot.repository;
 
+import net.javaguides.springboot.dto.EmployeeSummary;
+import net.javaguides.springboot.dto.EmployeeVersion;
 import net.javaguides.springboot.model.Employee;
 import static  org.assertj.core.api.Assertions.assertThat;
 
@@ -7,9 +9,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -165,4 +172,188 @@ public class EmployeeRepositoryTest {
         //then - verify output
         assertThat(savedEmployee).isNotNull();
     }
-}
\ No newline at end of file
+
+    //Junit Test for keyset pagination
+    @Test
+    public void givenEmployeesList_whenFindByIdGreaterThan_thenReturnNextPage(){
+        //given - precondition or setup
+        Employee employee2 = Employee.builder().firstName("Raj").lastName("shekhar").email("rajshekhar@gmail.com").build();
+        Employee employee3 = Employee.builder().firstName("Ravi").lastName("shekhar").email("ravishekhar@gmail.com").build();
+        employeeRepository.saveAll(List.of(employee, employee2, employee3));
+
+        //when  - action or behaviour that we are going to test
+        List<Employee> firstPage = employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+        List<Employee> secondPage = employeeRepository.findByIdGreaterThanOrderByIdAsc(firstPage.get(1).getId(), Limit.of(2));
+
+        //then - verify output
+        assertThat(firstPage).extracting(Employee::getEmail).containsExactly("shekhar@gmail.com", "rajshekhar@gmail.com");
+        assertThat(secondPage).extracting(Employee::getEmail).containsExactly("ravishekhar@gmail.com");
+    }
+
+    //Junit Test for keyset pagination with the summary projection
+    @Test
+    public void givenEmployeesList_whenFindSummariesByIdGreaterThan_thenReturnSummaries(){
+        //given - precondition or setup
+        Employee employee2 = Employee.builder().firstName("Raj").lastName("shekhar").email("rajshekhar@gmail.com").build();
+        employeeRepository.saveAllAndFlush(List.of(employee, employee2));
+
+        //when  - action or behaviour that we are going to test
+        List<EmployeeSummary> summaries = employeeRepository.findSummariesByIdGreaterThanOrderByIdAsc(employee.getId(), Limit.of(10));
+
+        //then - verify output
+        assertThat(summaries).containsExactly(new EmployeeSummary(employee2.getId(), "Raj", "shekhar"));
+    }
+
+    //Junit Test for keyset pagination with a sparse fieldset
+    @Test
+    public void givenEmployeesList_whenFindFieldsByIdGreaterThan_thenReturnOnlyRequestedFields(){
+        //given - precondition or setup
+        Employee employee2 = Employee.builder().firstName("Raj").lastName("shekhar").email("rajshekhar@gmail.com").build();
+        employeeRepository.saveAllAndFlush(List.of(employee, employee2));
+
+        //when  - action or behaviour that we are going to test
+        List<Map<String, Object>> rows = employeeRepository.findFieldsByIdGreaterThan(Set.of("email"), 0L, 1);
+
+        //then - verify output
+        assertThat(rows).containsExactly(Map.of("id", employee.getId(), "email", "shekhar@gmail.com"));
+    }
+
+    //Junit Test for streaming all employees
+    @Test
+    public void givenEmployeesList_whenStreamAll_thenStreamEmployeesInIdOrder(){
+        //given - precondition or setup
+        Employee employee2 = Employee.builder().firstName("Raj").lastName("shekhar").email("rajshekhar@gmail.com").build();
+        employeeRepository.saveAll(List.of(employee, employee2));
+
+        //when  - action or behaviour that we are going to test
+        List<String> emails;
+        try (Stream<Employee> employees = employeeRepository.streamAllOrderById()) {
+            emails = employees.map(Employee::getEmail).toList();
+        }
+
+        //then - verify output
+        assertThat(emails).containsExactly("shekhar@gmail.com", "rajshekhar@gmail.com");
+    }
+
+    //Junit Test for batched duplicate email check
+    @Test
+    public void givenSavedEmployee_whenFindExistingEmails_thenReturnOnlyTakenEmails(){
+        //given - precondition or setup
+        employeeRepository.save(employee);
+
+        //when  - action or behaviour that we are going to test
+        Set<String> takenEmails = employeeRepository.findExistingEmails(Set.of("shekhar@gmail.com", "new@gmail.com"));
+
+        //then - verify output
+        assertThat(takenEmails).containsExactly("shekhar@gmail.com");
+    }
+
+    //Junit Test for single statement update
+    @Test
+    public void givenSavedEmployee_whenUpdateEmployeeQuery_thenUpdateRowAndBumpVersion(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        Long version = employee.getVersion();
+
+        //when  - action or behaviour that we are going to test
+        int updatedRows = employeeRepository.updateEmployee(employee.getId(), "Raj", "shekhar", "raj@gmail.com", version);
+        Employee updatedEmployee = employeeRepository.findById(employee.getId()).get();
+
+        //then - verify output
+        assertThat(updatedRows).isEqualTo(1);
+        assertThat(updatedEmployee.getEmail()).isEqualTo("raj@gmail.com");
+        assertThat(updatedEmployee.getVersion()).isEqualTo(version + 1);
+    }
+
+    //Junit Test for single statement update with a stale version
+    @Test
+    public void givenStaleVersion_whenUpdateEmployeeQuery_thenUpdateNothing(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        employeeRepository.updateEmployee(employee.getId(), "Raj", "shekhar", "raj@gmail.com", null);
+
+        //when  - action or behaviour that we are going to test
+        int updatedRows = employeeRepository.updateEmployee(employee.getId(), "Ravi", "shekhar", "ravi@gmail.com", 0L);
+
+        //then - verify output
+        assertThat(updatedRows).isZero();
+        assertThat(employeeRepository.findById(employee.getId()).get().getEmail()).isEqualTo("raj@gmail.com");
+    }
+
+    //Junit Test for direct delete by id
+    @Test
+    public void givenSavedEmployee_whenDeleteEmployeeById_thenReportDeletedRows(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+
+        //when  - action or behaviour that we are going to test
+        int deletedRows = employeeRepository.deleteEmployeeById(employee.getId());
+        int deletedAgain = employeeRepository.deleteEmployeeById(employee.getId());
+
+        //then - verify output
+        assertThat(deletedRows).isEqualTo(1);
+        assertThat(deletedAgain).isZero();
+        assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+    }
+
+    //Junit Test for conditional delete by id and version
+    @Test
+    public void givenSavedEmployee_whenDeleteEmployeeByIdAndVersion_thenDeleteOnlyCurrentVersion(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+
+        //when  - action or behaviour that we are going to test
+        int staleRows = employeeRepository.deleteEmployeeByIdAndVersion(employee.getId(), employee.getVersion() + 1);
+        List<EmployeeVersion> versions = employeeRepository.findVersionsByIdGreaterThanOrderByIdAsc(0L, Limit.of(10));
+        int deletedRows = employeeRepository.deleteEmployeeByIdAndVersion(employee.getId(), employee.getVersion());
+
+        //then - verify output
+        assertThat(staleRows).isZero();
+        assertThat(versions).containsExactly(new EmployeeVersion(employee.getId(), employee.getVersion()));
+        assertThat(deletedRows).isEqualTo(1);
+    }
+
+    //Junit Test for bulk delete by ids
+    @Test
+    public void givenSavedEmployees_whenDeleteEmployeesByIds_thenDeleteOnlyThoseRows(){
+        //given - precondition or setup
+        Employee employee2 = Employee.builder().firstName("Raj").lastName("shekhar").email("rajshekhar@gmail.com").build();
+        Employee employee3 = Employee.builder().firstName("Ravi").lastName("shekhar").email("ravishekhar@gmail.com").build();
+        employeeRepository.saveAllAndFlush(List.of(employee, employee2, employee3));
+
+        //when  - action or behaviour that we are going to test
+        int deletedRows = employeeRepository.deleteEmployeesByIds(List.of(employee.getId(), employee2.getId(), -1L));
+
+        //then - verify output
+        assertThat(deletedRows).isEqualTo(2);
+        assertThat(employeeRepository.findAll()).extracting(Employee::getEmail).containsExactly("ravishekhar@gmail.com");
+    }
+
+    //Junit Test for locking the ids a bulk delete will remove
+    @Test
+    public void givenSavedEmployee_whenLockExistingIds_thenReturnOnlyExistingIds(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+
+        //when  - action or behaviour that we are going to test
+        List<Long> existingIds = employeeRepository.lockExistingIds(List.of(employee.getId(), -1L));
+
+        //then - verify output
+        assertThat(existingIds).containsExactly(employee.getId());
+    }
+
+    //Junit Test for the unique email index
+    @Test
+    public void givenSavedEmail_whenSaveEmployeeWithSameEmail_thenThrowDataIntegrityViolation(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        Employee sameEmail = Employee.builder().firstName("Raj").lastName("shekhar").email(employee.getEmail()).build();
+
+        //when  - action or behaviour that we are going to test
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+                () -> employeeRepository.saveAndFlush(sameEmail));
+
+        //then - verify output
+        assertThat(exception.getMessage()).containsIgnoringCase(Employee.EMAIL_UNIQUE_CONSTRAINT);
+    }
+}
@@ -0,0 +1,123 @@
+package net.javaguides.springboot.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import net.javaguides.springboot.config.CacheConfig;
+import net.javaguides.springboot.config.HibernateCacheConfig;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Every call runs in its own transaction and session, like separate requests, so reads can only be shared
+//through the second-level cache
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({HibernateCacheConfig.class, CacheConfig.class, EmployeeServiceImpl.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EmployeeSecondLevelCacheTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setUp(){
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        employee = employeeRepository.save(Employee.builder()
+                .firstName("Bheem")
+                .lastName("Shekhar")
+                .email("bheem@gmail.com")
+                .build());
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown(){
+        employeeRepository.deleteAllInBatch();
+    }
+
+    //Junit Test for findById served from the second-level cache
+    @Test
+    public void givenCachedEmployee_whenFindById_thenNoDatabaseRead(){
+        //given - precondition or setup
+        employeeRepository.findById(employee.getId());
+        statistics.clear();
+
+        //when  - action or behaviour that we are going to test
+        Optional<Employee> cachedEmployee = employeeRepository.findById(employee.getId());
+
+        //then - verify output
+        assertThat(cachedEmployee).isPresent();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    //Junit Test for findById after updateEmployee
+    @Test
+    public void givenCachedEmployee_whenUpdateEmployee_thenFindByIdReturnsUpdatedEmployee(){
+        //given - precondition or setup
+        employeeRepository.findById(employee.getId());
+        Employee update = Employee.builder().firstName("Ram").lastName("Shekhar").email("ram@gmail.com").build();
+
+        //when  - action or behaviour that we are going to test
+        employeeService.updateEmployee(employee.getId(), update);
+
+        //then - verify output
+        Employee updatedEmployee = employeeRepository.findById(employee.getId()).get();
+        assertThat(updatedEmployee.getFirstName()).isEqualTo("Ram");
+        assertThat(updatedEmployee.getEmail()).isEqualTo("ram@gmail.com");
+        assertThat(updatedEmployee.getVersion()).isEqualTo(employee.getVersion() + 1);
+    }
+
+    //Junit Test for findById after deleteEmployee
+    @Test
+    public void givenCachedEmployee_whenDeleteEmployee_thenFindByIdReturnsEmpty(){
+        //given - precondition or setup
+        employeeRepository.findById(employee.getId());
+
+        //when  - action or behaviour that we are going to test
+        employeeService.deleteEmployee(employee.getId());
+
+        //then - verify output
+        assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+    }
+
+    //Junit Test for the query cache of findByJPQL, invalidated by updateEmployee
+    @Test
+    public void givenCachedQuery_whenUpdateEmployee_thenQueryReturnsNewResult(){
+        //given - precondition or setup
+        employeeRepository.findByJPQL("Bheem", "Shekhar");
+        assertThat(employeeRepository.findByJPQL("Bheem", "Shekhar")).isNotNull();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+        //when  - action or behaviour that we are going to test
+        employeeService.updateEmployee(employee.getId(),
+                Employee.builder().firstName("Ram").lastName("Shekhar").email("ram@gmail.com").build());
+
+        //then - verify output
+        assertThat(employeeRepository.findByJPQL("Bheem", "Shekhar")).isNull();
+        assertThat(employeeRepository.findByJPQLNamedParams("Ram", "Shekhar").getEmail()).isEqualTo("ram@gmail.com");
+    }
+}
@@ -0,0 +1,152 @@
+package net.javaguides.springboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguides.springboot.config.EmployeeMetrics;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeLookupCoalescer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class EmployeeLookupCoalescerTest {
+
+    private EmployeeRepository employeeRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmployeeLookupCoalescer lookupCoalescer;
+
+    private Map<Long, Employee> employees;
+
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository = mock(EmployeeRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        callers = Executors.newVirtualThreadPerTaskExecutor();
+        lookupCoalescer = new EmployeeLookupCoalescer();
+        ReflectionTestUtils.setField(lookupCoalescer, "employeeRepository", employeeRepository);
+        ReflectionTestUtils.setField(lookupCoalescer, "meterRegistry", meterRegistry);
+        employees = Map.of(
+                1L, Employee.builder().id(1L).firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build(),
+                2L, Employee.builder().id(2L).firstName("Tony").lastName("Stark").email("tony@gmail.com").build());
+        given(employeeRepository.findAllById(any())).willAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                .filter(employees::containsKey)
+                .map(employees::get)
+                .toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.close();
+        lookupCoalescer.destroy();
+    }
+
+    //Junit Test for lookups arriving within one window
+    @Test
+    public void givenConcurrentLookups_whenLoad_thenShareOneQuery() throws Exception {
+        //given - precondition or setup
+        ReflectionTestUtils.setField(lookupCoalescer, "window", Duration.ofMillis(200));
+
+        //when  - action or behaviour that we are going to test
+        CompletableFuture<Optional<Employee>> first = CompletableFuture.supplyAsync(() -> lookupCoalescer.load(1L), callers);
+        CompletableFuture<Optional<Employee>> second = CompletableFuture.supplyAsync(() -> lookupCoalescer.load(2L), callers);
+        CompletableFuture<Optional<Employee>> again = CompletableFuture.supplyAsync(() -> lookupCoalescer.load(1L), callers);
+        CompletableFuture<Optional<Employee>> missing = CompletableFuture.supplyAsync(() -> lookupCoalescer.load(3L), callers);
+
+        //then - verify output
+        assertThat(first.get(5, TimeUnit.SECONDS)).contains(employees.get(1L));
+        assertThat(second.get(5, TimeUnit.SECONDS)).contains(employees.get(2L));
+        assertThat(again.get(5, TimeUnit.SECONDS)).contains(employees.get(1L));
+        assertThat(missing.get(5, TimeUnit.SECONDS)).isEmpty();
+        verify(employeeRepository, times(1)).findAllById(any());
+        assertThat(meterRegistry.summary(EmployeeMetrics.LOOKUP_BATCH_SIZE).totalAmount()).isEqualTo(3);
+    }
+
+    //Junit Test for a window that fills up before it closes
+    @Test
+    public void givenFullBatch_whenLoad_thenQueryWithoutWaitingForWindow() throws Exception {
+        //given - precondition or setup
+        ReflectionTestUtils.setField(lookupCoalescer, "window", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(lookupCoalescer, "maxBatchSize", 2);
+
+        //when  - action or behaviour that we are going to test
+        CompletableFuture<Optional<Employee>> first = CompletableFuture.supplyAsync(() -> lookupCoalescer.load(1L), callers);
+        CompletableFuture<Optional<Employee>> second = CompletableFuture.supplyAsync(() -> lookupCoalescer.load(2L), callers);
+
+        //then - verify output
+        assertThat(first.get(5, TimeUnit.SECONDS)).contains(employees.get(1L));
+        assertThat(second.get(5, TimeUnit.SECONDS)).contains(employees.get(2L));
+    }
+
+    //Junit Test for a failing query
+    @Test
+    public void givenQueryFails_whenLoad_thenThrowException() {
+        //given - precondition or setup
+        willThrow(new TransientDataAccessResourceException("connection lost")).given(employeeRepository).findAllById(any());
+
+        //when  - action or behaviour that we are going to test
+        assertThrows(TransientDataAccessResourceException.class, () -> lookupCoalescer.load(1L));
+
+        //then - verify output
+        verify(employeeRepository, never()).findById(any());
+    }
+
+    //Junit Test for a query that does not finish in time
+    @Test
+    public void givenSlowQuery_whenLoad_thenThrowTimeout() {
+        //given - precondition or setup
+        ReflectionTestUtils.setField(lookupCoalescer, "timeout", Duration.ofMillis(50));
+        willAnswer(invocation -> {
+            Thread.sleep(1000);
+            return List.of();
+        }).given(employeeRepository).findAllById(any());
+
+        //when  - action or behaviour that we are going to test
+        assertThrows(QueryTimeoutException.class, () -> lookupCoalescer.load(1L));
+
+        //then - verify output
+        verify(employeeRepository, times(1)).findAllById(any());
+    }
+
+    //Junit Test for coalescing turned off
+    @Test
+    public void givenZeroWindow_whenLoad_thenFindById() {
+        //given - precondition or setup
+        ReflectionTestUtils.setField(lookupCoalescer, "window", Duration.ZERO);
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employees.get(1L)));
+
+        //when  - action or behaviour that we are going to test
+        Optional<Employee> employee = lookupCoalescer.load(1L);
+
+        //then - verify output
+        assertThat(employee).contains(employees.get(1L));
+        verify(employeeRepository, never()).findAllById(any());
+    }
+}
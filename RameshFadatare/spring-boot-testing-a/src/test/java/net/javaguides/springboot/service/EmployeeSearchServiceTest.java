@@ -0,0 +1,178 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.dto.EmployeeSearchHit;
+import net.javaguides.springboot.dto.EmployeeSearchResult;
+import net.javaguides.springboot.event.EmployeeChangeEvent;
+import net.javaguides.springboot.event.EmployeeChangesEvent;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.EmployeeSearchServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeSearchServiceTest {
+
+    private EmployeeSearchServiceImpl employeeSearchService;
+
+    @BeforeEach
+    void setUp() {
+        employeeSearchService = new EmployeeSearchServiceImpl();
+        save(1L, "Bheem", "Shekhar", "bheem@gmail.com");
+        save(2L, "Shekhar", "Bheemrao", "shekhar@javaguides.net");
+        save(3L, "Ramesh", "Fadatare", "ramesh@gmail.com");
+    }
+
+    //Junit Test for prefix search
+    @Test
+    public void givenIndexedEmployees_whenSearchPrefix_thenReturnMatchingEmployees(){
+        //given - precondition or setup
+
+        //when  - action or behaviour that we are going to test
+        EmployeeSearchResult result = employeeSearchService.search("bhe", 10);
+
+        //then - verify output
+        assertThat(result.partial()).isFalse();
+        assertThat(result.hits()).extracting(EmployeeSearchHit::id).containsExactly(1L, 2L);
+    }
+
+    //Junit Test for ranking - exact token before prefix, every query word must match
+    @Test
+    public void givenSeveralWords_whenSearch_thenRankExactMatchesFirst(){
+        //given - precondition or setup
+
+        //when  - action or behaviour that we are going to test
+        EmployeeSearchResult result = employeeSearchService.search("Shekhar bheem", 10);
+
+        //then - verify output
+        assertThat(result.hits()).extracting(EmployeeSearchHit::id).containsExactly(1L, 2L);
+        assertThat(result.hits().get(0).score()).isGreaterThan(result.hits().get(1).score());
+        assertThat(employeeSearchService.search("ramesh bheem", 10).hits()).isEmpty();
+    }
+
+    //Junit Test for substring search
+    @Test
+    public void givenInfix_whenSearch_thenMatchInsideTokens(){
+        //given - precondition or setup
+
+        //when  - action or behaviour that we are going to test
+        EmployeeSearchResult result = employeeSearchService.search("data", 10);
+
+        //then - verify output
+        assertThat(result.hits()).extracting(EmployeeSearchHit::id).containsExactly(3L);
+    }
+
+    //Junit Test for update - old tokens no longer match
+    @Test
+    public void givenUpdatedEmployee_whenSearch_thenReturnNewValuesOnly(){
+        //given - precondition or setup
+        save(3L, "Tony", "Stark", "tony@gmail.com");
+
+        //when  - action or behaviour that we are going to test
+        EmployeeSearchResult oldName = employeeSearchService.search("ramesh", 10);
+        EmployeeSearchResult newName = employeeSearchService.search("ton", 10);
+
+        //then - verify output
+        assertThat(oldName.hits()).isEmpty();
+        assertThat(newName.hits()).extracting(EmployeeSearchHit::firstName).containsExactly("Tony");
+    }
+
+    //Junit Test for delete
+    @Test
+    public void givenDeletedEmployee_whenSearch_thenNotReturned(){
+        //given - precondition or setup
+        employeeSearchService.onEmployeeChange(EmployeeChangeEvent.deleted(1L));
+
+        //when  - action or behaviour that we are going to test
+        EmployeeSearchResult result = employeeSearchService.search("bheem", 10);
+
+        //then - verify output
+        assertThat(result.hits()).extracting(EmployeeSearchHit::id).containsExactly(2L);
+    }
+
+    //Junit Test for the change event of a bulk write
+    @Test
+    public void givenBulkDeleteEvent_whenSearch_thenDeletedEmployeesNotReturned(){
+        //given - precondition or setup
+        employeeSearchService.onEmployeeChanges(new EmployeeChangesEvent(
+                List.of(EmployeeChangeEvent.deleted(1L), EmployeeChangeEvent.deleted(2L))));
+
+        //when  - action or behaviour that we are going to test
+        EmployeeSearchResult result = employeeSearchService.search("bheem", 10);
+
+        //then - verify output
+        assertThat(result.hits()).isEmpty();
+    }
+
+    //Junit Test for a spent budget - best-effort hits instead of none
+    @Test
+    public void givenBudgetSpent_whenSearch_thenReturnFirstMatches(){
+        //given - precondition or setup
+        ReflectionTestUtils.setField(employeeSearchService, "budget", Duration.ZERO);
+        save(4L, "Bheemesh", "Rao", "rao@gmail.com");
+
+        //when  - action or behaviour that we are going to test
+        EmployeeSearchResult prefix = employeeSearchService.search("bhee", 10);
+        EmployeeSearchResult infix = employeeSearchService.search("data", 10);
+
+        //then - verify output
+        assertThat(prefix.hits()).isNotEmpty();
+        assertThat(infix.hits()).extracting(EmployeeSearchHit::id).containsExactly(3L);
+    }
+
+    //Junit Test for a spent budget inside one common token - the scan stops within its postings
+    @Test
+    public void givenCommonTokenAndBudgetSpent_whenSearch_thenReturnPartialTopHits(){
+        //given - precondition or setup
+        ReflectionTestUtils.setField(employeeSearchService, "budget", Duration.ZERO);
+        for (long id = 10; id < 2010; id++) {
+            save(id, "Employee" + id, "Common", "employee" + id + "@gmail.com");
+        }
+
+        //when  - action or behaviour that we are going to test
+        EmployeeSearchResult result = employeeSearchService.search("common", 3);
+
+        //then - verify output
+        assertThat(result.partial()).isTrue();
+        assertThat(result.hits()).hasSize(3);
+        assertThat(result.hits()).extracting(EmployeeSearchHit::id).isSorted();
+    }
+
+    //Junit Test for limit - only the best hits, in ranking order
+    @Test
+    public void givenMoreMatchesThanLimit_whenSearch_thenReturnBestHits(){
+        //given - precondition or setup
+        save(4L, "Bheemesh", "Rao", "rao@gmail.com");
+
+        //when  - action or behaviour that we are going to test
+        EmployeeSearchResult result = employeeSearchService.search("bheem", 2);
+
+        //then - verify output
+        assertThat(result.hits()).extracting(EmployeeSearchHit::id).containsExactly(1L, 2L);
+    }
+
+    //Junit Test for mail provider and top-level domain words - not indexed, company domains are
+    @Test
+    public void givenCommonDomainWords_whenSearch_thenOnlyCompanyDomainMatches(){
+        //given - precondition or setup
+
+        //when  - action or behaviour that we are going to test
+        EmployeeSearchResult provider = employeeSearchService.search("gmail", 10);
+        EmployeeSearchResult topLevel = employeeSearchService.search("com", 10);
+        EmployeeSearchResult company = employeeSearchService.search("javaguides", 10);
+
+        //then - verify output
+        assertThat(provider.hits()).isEmpty();
+        assertThat(topLevel.hits()).isEmpty();
+        assertThat(company.hits()).extracting(EmployeeSearchHit::id).containsExactly(2L);
+    }
+
+    private void save(Long id, String firstName, String lastName, String email) {
+        employeeSearchService.onEmployeeChange(EmployeeChangeEvent.saved(Employee.builder()
+                .id(id).firstName(firstName).lastName(lastName).email(email).build()));
+    }
+}
@@ -0,0 +1,157 @@
+package net.javaguides.springboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import net.javaguides.springboot.config.CacheConfig;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(classes = {CacheConfig.class, EmployeeServiceImpl.class, SimpleMeterRegistry.class})
+class EmployeeServiceCacheTest {
+
+    @MockBean
+    private EmployeeRepository employeeRepository;
+
+    @MockBean
+    private EntityManager entityManager;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Bheem")
+                .lastName("Shekhar")
+                .email("bheem@gmail.com")
+                .build();
+    }
+
+    //Junit Test for repeated GetEmployeeById served from the cache
+    @Test
+    public void givenCachedEmployee_whenGetEmployeeByIdTwice_thenQueryDatabaseOnce(){
+        //given - precondition or setup
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        //when  - action or behaviour that we are going to test
+        employeeService.getEmployeeById(1L);
+        Optional<Employee> cachedEmployee = employeeService.getEmployeeById(1L);
+
+        //then - verify output
+        assertThat(cachedEmployee).contains(employee);
+        verify(employeeRepository, times(1)).findById(1L);
+    }
+
+    //Junit Test for an update joining an open transaction - the eviction waits for the commit
+    @Test
+    public void givenUpdateInOpenTransaction_whenConcurrentGetBeforeCommit_thenStaleEntryEvictedOnCommit(){
+        //given - precondition or setup
+        Employee updatedEmployee = Employee.builder().id(1L).firstName("Ram").lastName("Shekhar").email("ram@gmail.com").build();
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee), Optional.of(updatedEmployee));
+        given(employeeRepository.updateEmployee(1L, "Ram", "Shekhar", "ram@gmail.com", null)).willReturn(1);
+
+        //when  - action or behaviour that we are going to test
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            employeeService.updateEmployee(1L, updatedEmployee);
+            //another request reads the row before the commit and caches what it sees
+            CompletableFuture.runAsync(() -> employeeService.getEmployeeById(1L)).join();
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        Optional<Employee> afterCommit = employeeService.getEmployeeById(1L);
+
+        //then - verify output
+        assertThat(afterCommit).contains(updatedEmployee);
+        verify(employeeRepository, times(2)).findById(1L);
+    }
+
+    //Junit Test for negative caching of a missing Employee
+    @Test
+    public void givenMissingEmployee_whenGetEmployeeByIdTwice_thenCacheTheMiss(){
+        //given - precondition or setup
+        given(employeeRepository.findById(2L)).willReturn(Optional.empty());
+
+        //when  - action or behaviour that we are going to test
+        employeeService.getEmployeeById(2L);
+        Optional<Employee> missingEmployee = employeeService.getEmployeeById(2L);
+
+        //then - verify output
+        assertThat(missingEmployee).isEmpty();
+        verify(employeeRepository, times(1)).findById(2L);
+    }
+
+    //Junit Test for cache invalidation on updateEmployee
+    @Test
+    public void givenCachedEmployee_whenUpdateEmployee_thenReloadFromDatabase(){
+        //given - precondition or setup
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        given(employeeRepository.updateEmployee(1L, "Bheem", "Shekhar", "bheem@gmail.com", null)).willReturn(1);
+        employeeService.getEmployeeById(1L);
+
+        //when  - action or behaviour that we are going to test
+        employeeService.updateEmployee(1L, employee);
+        employeeService.getEmployeeById(1L);
+
+        //then - verify output
+        verify(employeeRepository, times(2)).findById(1L);
+    }
+
+    //Junit Test for cache invalidation on deleteEmployee
+    @Test
+    public void givenCachedEmployee_whenDeleteEmployee_thenReloadFromDatabase(){
+        //given - precondition or setup
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee), Optional.empty());
+        employeeService.getEmployeeById(1L);
+
+        //when  - action or behaviour that we are going to test
+        employeeService.deleteEmployee(1L);
+        Optional<Employee> deletedEmployee = employeeService.getEmployeeById(1L);
+
+        //then - verify output
+        assertThat(deletedEmployee).isEmpty();
+        verify(employeeRepository, times(2)).findById(1L);
+    }
+
+    //Junit Test for a cached miss replaced by saveEmployee
+    @Test
+    public void givenCachedMiss_whenSaveEmployee_thenServeSavedEmployee(){
+        //given - precondition or setup
+        given(employeeRepository.findById(1L)).willReturn(Optional.empty());
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+        employeeService.getEmployeeById(1L);
+
+        //when  - action or behaviour that we are going to test
+        employeeService.saveEmployee(employee);
+        Optional<Employee> savedEmployee = employeeService.getEmployeeById(1L);
+
+        //then - verify output
+        assertThat(savedEmployee).contains(employee);
+        verify(employeeRepository, times(1)).findById(1L);
+    }
+}
@@ -1,10 +1,18 @@
 package net.javaguides.springboot.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import net.javaguides.springboot.config.EmployeeMetrics;
+import net.javaguides.springboot.dto.BulkCreateResult;
+import net.javaguides.springboot.dto.EmployeeSummary;
+import net.javaguides.springboot.event.EmployeeChangeEvent;
+import net.javaguides.springboot.event.EmployeeChangesEvent;
 import net.javaguides.springboot.exception.ResourceNotFoundException;
 import net.javaguides.springboot.model.Employee;
 import net.javaguides.springboot.repository.EmployeeRepository;
 import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
 import static org.assertj.core.api.Assertions.assertThat;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,11 +22,23 @@ import static org.mockito.BDDMockito.given;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import net.javaguides.springboot.config.CacheConfig;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.BDDMockito.willDoNothing;
@@ -30,6 +50,18 @@ class EmployeeServiceTest {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -52,9 +84,7 @@ class EmployeeServiceTest {
    @Test
    public void givenEmployeeObject_whenSaveEmployee_thenReturnEmployeeObject(){
        //given - precondition or setup
-       given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
-
-       given(employeeRepository.save(employee)).willReturn(employee);
+       given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
 
        //when  - action or behaviour that we are going to test
        Employee savedEmployee= employeeService.saveEmployee(employee);
@@ -68,7 +98,8 @@ class EmployeeServiceTest {
     @Test
     public void givenExistingEmail_whenSaveEmployee_thenThrowException(){
         //given - precondition or setup
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee)).willThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", null, "PUBLIC.UK_EMPLOYEES_EMAIL_INDEX_4 ON PUBLIC.EMPLOYEES(EMAIL)")));
 
         //when  - action or behaviour that we are going to test
         org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
@@ -76,7 +107,49 @@ class EmployeeServiceTest {
         });
 
         //then
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, never()).findByEmail(any());
+        assertThat(meterRegistry.counter(EmployeeMetrics.DUPLICATE_EMAILS, "operation", "save").count()).isEqualTo(1);
+    }
+
+    //Junit Test for save Employee violating another constraint
+    @Test
+    public void givenOtherConstraintViolation_whenSaveEmployee_thenRethrowException(){
+        //given - precondition or setup
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("not null",
+                new ConstraintViolationException("not null", null, "FIRST_NAME"));
+        given(employeeRepository.saveAndFlush(employee)).willThrow(violation);
+
+        //when  - action or behaviour that we are going to test
+        DataIntegrityViolationException thrown = org.junit.jupiter.api.Assertions.assertThrows(DataIntegrityViolationException.class, () -> {
+            employeeService.saveEmployee(employee);
+        });
+
+        //then - verify output
+        assertThat(thrown).isSameAs(violation);
+    }
+
+    //Junit Test for bulk save Employees
+    @Test
+    public void givenEmployeesWithDuplicates_whenSaveEmployees_thenReturnPerRowResults(){
+        //given - precondition or setup
+        Employee existing = Employee.builder().firstName("Raj").lastName("Shekhar").email("raj@gmail.com").build();
+        Employee repeated = Employee.builder().firstName("Bheem").lastName("Golla").email("bheem@gmail.com").build();
+        Employee invalid = Employee.builder().firstName("Ravi").lastName("Shekhar").build();
+        given(employeeRepository.findExistingEmails(Set.of("bheem@gmail.com", "raj@gmail.com"))).willReturn(Set.of("raj@gmail.com"));
+        given(employeeRepository.saveAll(List.of(employee))).willReturn(List.of(employee));
+
+        //when  - action or behaviour that we are going to test
+        List<BulkCreateResult> results = employeeService.saveEmployees(List.of(employee, existing, repeated, invalid));
+
+        //then - verify output
+        assertThat(results).extracting(BulkCreateResult::status).containsExactly(
+                BulkCreateResult.Status.CREATED,
+                BulkCreateResult.Status.DUPLICATE,
+                BulkCreateResult.Status.DUPLICATE,
+                BulkCreateResult.Status.INVALID);
+        assertThat(results).extracting(BulkCreateResult::index).containsExactly(0, 1, 2, 3);
+        assertThat(meterRegistry.counter(EmployeeMetrics.DUPLICATE_EMAILS, "operation", "save_bulk").count()).isEqualTo(2);
+        verify(employeeRepository, never()).findByEmail(any());
     }
 
     //Junit Test for Get All Employees
@@ -107,6 +180,49 @@ class EmployeeServiceTest {
         assertThat(employeeList.size()).isEqualTo(0);
     }
 
+    //Junit Test for keyset page of employees
+    @Test
+    public void givenAfterId_whenGetEmployeesAfter_thenReturnNextEmployees(){
+        //given - precondition or setup
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(10))).willReturn(List.of(employee));
+
+        //when  - action or behaviour that we are going to test
+        List<Employee> employeeList = employeeService.getEmployeesAfter(0L, 10);
+
+        //then - verify output
+        assertThat(employeeList).containsExactly(employee);
+    }
+
+    //Junit Test for the summary listing
+    @Test
+    public void givenSummaries_whenGetEmployeeSummariesAfter_thenReturnProjection(){
+        //given - precondition or setup
+        EmployeeSummary summary = new EmployeeSummary(1L, "Bheem", "Shekhar");
+        given(employeeRepository.findSummariesByIdGreaterThanOrderByIdAsc(0L, Limit.of(10))).willReturn(List.of(summary));
+
+        //when  - action or behaviour that we are going to test
+        List<EmployeeSummary> summaries = employeeService.getEmployeeSummariesAfter(0L, 10);
+
+        //then - verify output
+        assertThat(summaries).containsExactly(summary);
+        verify(employeeRepository, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    //Junit Test for streaming all employees
+    @Test
+    public void givenEmployees_whenStreamAllEmployees_thenConsumeAndDetachEachEmployee(){
+        //given - precondition or setup
+        given(employeeRepository.streamAllOrderById()).willReturn(Stream.of(employee));
+
+        //when  - action or behaviour that we are going to test
+        List<Employee> consumed = new ArrayList<>();
+        employeeService.streamAllEmployees(consumed::add);
+
+        //then - verify output
+        assertThat(consumed).containsExactly(employee);
+        verify(entityManager).detach(employee);
+    }
+
     //Junit Test for GetEmployeeById method
     @Test
     public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeeObject(){
@@ -120,32 +236,165 @@ class EmployeeServiceTest {
         assertThat(savedEmployee).isNotNull();
     }
 
+    //Junit Test for GetEmployeesByIds method
+    @Test
+    public void givenEmployeeIds_whenGetEmployeesByIds_thenQueryOnlyUncachedIds(){
+        //given - precondition or setup
+        Cache cache = new ConcurrentMapCache(CacheConfig.EMPLOYEES_BY_ID);
+        cache.put(1L, employee);
+        given(cacheManager.getCache(CacheConfig.EMPLOYEES_BY_ID)).willReturn(cache);
+        Employee employee3 = Employee.builder().id(3L).firstName("Tony").lastName("Stark").email("tony@gmail.com").build();
+        given(employeeRepository.findAllById(List.of(3L, 2L))).willReturn(List.of(employee3));
+
+        //when  - action or behaviour that we are going to test
+        List<Employee> employees = employeeService.getEmployeesByIds(List.of(3L, 1L, 2L, 3L));
+
+        //then - verify output
+        assertThat(employees).containsExactly(employee3, employee);
+        assertThat(cache.get(3L).get()).isEqualTo(employee3);
+        assertThat(cache.get(2L).get()).isNull();
+    }
+
     //Junit Test for updateEmployee method
     @Test
     public void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee(){
         //given - precondition or setup
-        given(employeeRepository.save(employee)).willReturn(employee);
         employee.setEmail("shekhar@gmail.com");
+        employee.setVersion(3L);
+        given(employeeRepository.updateEmployee(1L, "Bheem", "Shekhar", "shekhar@gmail.com", 3L)).willReturn(1);
 
         //when  - action or behaviour that we are going to test
-        Employee updatedEmployee = employeeService.updateEmployee(employee);
+        Employee updatedEmployee = employeeService.updateEmployee(1L, employee).get();
 
         //then - verify output
         assertThat(updatedEmployee.getEmail()).isEqualTo("shekhar@gmail.com");
+        assertThat(updatedEmployee.getVersion()).isEqualTo(4L);
+        verify(employeeRepository, never()).findById(any());
+        verify(employeeRepository, never()).save(any(Employee.class));
+    }
+
+    //Junit Test for updateEmployee method without a version - the new version is read back
+    @Test
+    public void givenEmployeeWithoutVersion_whenUpdateEmployee_thenReturnNewVersion(){
+        //given - precondition or setup
+        given(employeeRepository.updateEmployee(1L, "Bheem", "Shekhar", "bheem@gmail.com", null)).willReturn(1);
+        given(employeeRepository.findVersionById(1L)).willReturn(6L);
+
+        //when  - action or behaviour that we are going to test
+        Employee updatedEmployee = employeeService.updateEmployee(1L, employee).get();
+
+        //then - verify output
+        assertThat(updatedEmployee.getVersion()).isEqualTo(6L);
+    }
+
+    //Junit Test for updateEmployee method - missing Employee
+    @Test
+    public void givenMissingEmployee_whenUpdateEmployee_thenReturnEmpty(){
+        //given - precondition or setup
+        given(employeeRepository.updateEmployee(1L, "Bheem", "Shekhar", "bheem@gmail.com", null)).willReturn(0);
+
+        //when  - action or behaviour that we are going to test
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee);
+
+        //then - verify output
+        assertThat(updatedEmployee).isEmpty();
+    }
+
+    //Junit Test for updateEmployee method - stale version
+    @Test
+    public void givenStaleVersion_whenUpdateEmployee_thenThrowOptimisticLockingFailure(){
+        //given - precondition or setup
+        employee.setVersion(1L);
+        given(employeeRepository.updateEmployee(1L, "Bheem", "Shekhar", "bheem@gmail.com", 1L)).willReturn(0);
+        given(employeeRepository.existsById(1L)).willReturn(true);
+
+        //when  - action or behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ObjectOptimisticLockingFailureException.class, () -> {
+            employeeService.updateEmployee(1L, employee);
+        });
     }
 
     //Junit Test for deleteEmployee
     @Test
-    public void givenEmployeeId_whenDeleteEmployee_thenNothing(){
+    public void givenEmployeeId_whenDeleteEmployee_thenReturnTrue(){
         //given - precondition or setup
         Long employeeId = 1L;
-        willDoNothing().given(employeeRepository).deleteById(employeeId);
+        given(employeeRepository.deleteEmployeeById(employeeId)).willReturn(1);
+
+        //when  - action or behaviour that we are going to test
+        boolean deleted = employeeService.deleteEmployee(employeeId);
+
+        //then - verify output
+        assertThat(deleted).isTrue();
+        verify(employeeRepository, times(1)).deleteEmployeeById(employeeId);
+        verify(employeeRepository, never()).findById(employeeId);
+        verify(eventPublisher).publishEvent(EmployeeChangeEvent.deleted(employeeId));
+    }
+
+    //Junit Test for deleteEmployee - missing Employee
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturnFalse(){
+        //given - precondition or setup
+        given(employeeRepository.deleteEmployeeById(1L)).willReturn(0);
 
         //when  - action or behaviour that we are going to test
-        employeeService.deleteEmployee(employeeId);
+        boolean deleted = employeeService.deleteEmployee(1L);
 
         //then - verify output
-        verify(employeeRepository, times(1)).deleteById(employeeId);
+        assertThat(deleted).isFalse();
+        verify(eventPublisher, never()).publishEvent(any(EmployeeChangeEvent.class));
+    }
+
+    //Junit Test for deleteEmployee with a stale version
+    @Test
+    public void givenStaleVersion_whenDeleteEmployee_thenThrowException(){
+        //given - precondition or setup
+        given(employeeRepository.deleteEmployeeByIdAndVersion(1L, 2L)).willReturn(0);
+        given(employeeRepository.existsById(1L)).willReturn(true);
+
+        //when  - action or behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ObjectOptimisticLockingFailureException.class, () -> {
+            employeeService.deleteEmployee(1L, 2L);
+        });
+
+        //then - verify output
+        verify(employeeRepository, never()).deleteEmployeeById(1L);
+        verify(eventPublisher, never()).publishEvent(any(EmployeeChangeEvent.class));
+    }
 
+    //Junit Test for bulk deleteEmployees
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenDeleteInChunks(){
+        //given - precondition or setup
+        List<Long> employeeIds = new ArrayList<>();
+        for (long id = 1; id <= 1500; id++) {
+            employeeIds.add(id);
+        }
+        employeeIds.add(1L);
+        given(employeeRepository.lockExistingIds(any())).willAnswer(invocation -> List.copyOf(invocation.<List<Long>>getArgument(0)));
+        given(employeeRepository.deleteEmployeesByIds(any())).willAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        //when  - action or behaviour that we are going to test
+        int deleted = employeeService.deleteEmployees(employeeIds);
+
+        //then - verify output
+        assertThat(deleted).isEqualTo(1500);
+        verify(employeeRepository, times(2)).deleteEmployeesByIds(any());
+    }
+
+    //Junit Test for bulk deleteEmployees with ids that do not exist
+    @Test
+    public void givenMissingEmployeeIds_whenDeleteEmployees_thenPublishOnlyRemovedRows(){
+        //given - precondition or setup
+        given(employeeRepository.lockExistingIds(List.of(1L, 7L, 9L))).willReturn(List.of(1L));
+        given(employeeRepository.deleteEmployeesByIds(List.of(1L))).willReturn(1);
+
+        //when  - action or behaviour that we are going to test
+        int deleted = employeeService.deleteEmployees(List.of(1L, 7L, 9L));
+
+        //then - verify output
+        assertThat(deleted).isEqualTo(1);
+        verify(eventPublisher).publishEvent(new EmployeeChangesEvent(List.of(EmployeeChangeEvent.deleted(1L))));
+        verify(eventPublisher, never()).publishEvent(any(EmployeeChangeEvent.class));
     }
-}
\ No newline at end of file
+}
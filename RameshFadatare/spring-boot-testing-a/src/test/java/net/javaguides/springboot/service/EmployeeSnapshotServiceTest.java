@@ -0,0 +1,161 @@
+package net.javaguides.springboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguides.springboot.config.CacheConfig;
+import net.javaguides.springboot.config.HibernateCacheConfig;
+import net.javaguides.springboot.dto.SnapshotResult;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import net.javaguides.springboot.service.impl.EmployeeSnapshotServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//Imports commit batch by batch, so the test cannot run inside a rolled back test transaction
+@DataJpaTest(properties = "employee.snapshot.batch-size=7")
+@Import({EmployeeSnapshotServiceImpl.class, EmployeeServiceImpl.class, CacheConfig.class, HibernateCacheConfig.class,
+        SimpleMeterRegistry.class})
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EmployeeSnapshotServiceTest {
+
+    @Autowired
+    private EmployeeSnapshotService employeeSnapshotService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @AfterEach
+    public void tearDown(){
+        employeeRepository.deleteAllInBatch();
+    }
+
+    //Junit Test for exportSnapshot and importSnapshot round trip, with and without compression
+    @Test
+    public void givenEmployees_whenExportAndImportSnapshot_thenSameRowsRestored() throws IOException {
+        long[] sizes = new long[2];
+        for (boolean compress : new boolean[]{false, true}) {
+            //given - precondition or setup
+            List<Employee> employees = saveEmployees(20);
+            Employee cached = employeeService.getEmployeeById(employees.get(0).getId()).orElseThrow();
+
+            //when  - action or behaviour that we are going to test
+            ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+            SnapshotResult exported = employeeSnapshotService.exportSnapshot(Channels.newChannel(snapshot), compress);
+            employeeRepository.deleteAllInBatch();
+            SnapshotResult imported = employeeSnapshotService.importSnapshot(
+                    Channels.newChannel(new ByteArrayInputStream(snapshot.toByteArray())));
+
+            //then - verify output
+            assertThat(exported.rows()).isEqualTo(20);
+            assertThat(exported.bytes()).isEqualTo(snapshot.size());
+            assertThat(imported.rows()).isEqualTo(20);
+            assertThat(imported.bytes()).isEqualTo(snapshot.size());
+            assertThat(employeeRepository.findAll())
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .containsExactlyInAnyOrderElementsOf(employees);
+            assertThat(employeeService.getEmployeeById(cached.getId())).isPresent();
+            sizes[compress ? 1 : 0] = exported.bytes();
+            employeeRepository.deleteAllInBatch();
+        }
+        assertThat(sizes[1]).isLessThan(sizes[0]);
+    }
+
+    //Junit Test for saveEmployee after importSnapshot - new ids start above the imported ones
+    @Test
+    public void givenImportedSnapshot_whenSaveEmployee_thenIdDoesNotCollide() throws IOException {
+        //given - precondition or setup
+        List<Employee> employees = saveEmployees(3);
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        employeeSnapshotService.exportSnapshot(Channels.newChannel(snapshot), true);
+        employeeRepository.deleteAllInBatch();
+        employeeSnapshotService.importSnapshot(Channels.newChannel(new ByteArrayInputStream(snapshot.toByteArray())));
+
+        //when  - action or behaviour that we are going to test
+        Employee savedEmployee = employeeService.saveEmployee(Employee.builder()
+                .firstName("New")
+                .lastName("Joiner")
+                .email("new.joiner@gmail.com")
+                .build());
+
+        //then - verify output
+        assertThat(savedEmployee.getId()).isGreaterThan(employees.get(employees.size() - 1).getId());
+        assertThat(employeeRepository.count()).isEqualTo(4);
+    }
+
+    //Junit Test for importSnapshot with a truncated file
+    @Test
+    public void givenTruncatedSnapshot_whenImportSnapshot_thenThrowsIOException() throws IOException {
+        //given - precondition or setup
+        saveEmployees(3);
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        employeeSnapshotService.exportSnapshot(Channels.newChannel(snapshot), false);
+        employeeRepository.deleteAllInBatch();
+        byte[] truncated = Arrays.copyOf(snapshot.toByteArray(), snapshot.size() - 4);
+
+        //when  - action or behaviour that we are going to test
+        //then - verify output
+        assertThatThrownBy(() -> employeeSnapshotService.importSnapshot(
+                Channels.newChannel(new ByteArrayInputStream(truncated))))
+                .isInstanceOf(IOException.class);
+    }
+
+    //Junit Test for importSnapshot with a stream that breaks after the first batch was committed
+    @Test
+    public void givenSnapshotBrokenAfterFirstBatch_whenImportSnapshot_thenCommittedRowsVisibleAndIdsDoNotCollide() throws IOException {
+        //given - precondition or setup
+        List<Employee> employees = saveEmployees(10);
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        employeeSnapshotService.exportSnapshot(Channels.newChannel(snapshot), false);
+        employeeRepository.deleteAllInBatch();
+        Long firstId = employees.get(0).getId();
+        assertThat(employeeService.getEmployeeById(firstId)).isEmpty();
+        byte[] truncated = Arrays.copyOf(snapshot.toByteArray(), snapshot.size() - 4);
+
+        //when  - action or behaviour that we are going to test
+        assertThatThrownBy(() -> employeeSnapshotService.importSnapshot(
+                Channels.newChannel(new ByteArrayInputStream(truncated))))
+                .isInstanceOf(IOException.class);
+        Employee savedEmployee = employeeService.saveEmployee(Employee.builder()
+                .firstName("New")
+                .lastName("Joiner")
+                .email("new.joiner@gmail.com")
+                .build());
+
+        //then - verify output
+        assertThat(employeeRepository.count()).isEqualTo(7 + 1);
+        assertThat(employeeService.getEmployeeById(firstId)).isPresent();
+        assertThat(savedEmployee.getId()).isGreaterThan(employees.get(6).getId());
+    }
+
+    private List<Employee> saveEmployees(int count){
+        return employeeRepository.saveAll(IntStream.range(0, count)
+                .mapToObj(i -> Employee.builder()
+                        .firstName("First" + i)
+                        .lastName("Lâst" + i)
+                        .email("employee" + i + "@gmail.com")
+                        .build())
+                .toList());
+    }
+}
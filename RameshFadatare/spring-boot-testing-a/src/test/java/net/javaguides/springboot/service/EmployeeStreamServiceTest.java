@@ -0,0 +1,96 @@
+package net.javaguides.springboot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeStreamServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+//A fetch size below the row count makes the generator flush in the middle of the array
+@DataJpaTest(properties = "employee.stream.fetch-size=2")
+@Import(EmployeeStreamServiceImpl.class)
+@ImportAutoConfiguration({JdbcTemplateAutoConfiguration.class, JacksonAutoConfiguration.class})
+public class EmployeeStreamServiceTest {
+
+    @Autowired
+    private EmployeeStreamService employeeStreamService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    //Junit Test for writeJsonArray method
+    @Test
+    public void givenEmployees_whenWriteJsonArray_thenSameJsonAsEmployeeList() throws IOException {
+        //given - precondition or setup
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            employees.add(Employee.builder().firstName("Bheem" + i).lastName("Shekhar \"" + i + "\"").email("bheem" + i + "@gmail.com").build());
+        }
+        employeeRepository.saveAllAndFlush(employees);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when  - action or behaviour that we are going to test
+        long rows = employeeStreamService.writeJsonArray(out);
+
+        //then - verify output
+        assertThat(rows).isEqualTo(5);
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo(objectMapper.writeValueAsString(employeeRepository.findAll(Sort.by("id"))));
+    }
+
+    //Junit Test for writeJsonArray method without employees
+    @Test
+    public void givenNoEmployees_whenWriteJsonArray_thenEmptyArray() throws IOException {
+        //given - precondition or setup
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when  - action or behaviour that we are going to test
+        long rows = employeeStreamService.writeJsonArray(out);
+
+        //then - verify output
+        assertThat(rows).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("[]");
+    }
+
+    //Junit Test for writeJsonArray method when the client goes away
+    @Test
+    public void givenClosedOutput_whenWriteJsonArray_thenThrowIOException() {
+        //given - precondition or setup
+        for (int i = 0; i < 5; i++) {
+            employeeRepository.save(Employee.builder().firstName("Bheem").lastName("Shekhar").email("bheem" + i + "@gmail.com").build());
+        }
+        employeeRepository.flush();
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        //when  - action or behaviour that we are going to test
+        IOException exception = assertThrows(IOException.class, () -> employeeStreamService.writeJsonArray(out));
+
+        //then - verify output
+        assertThat(exception).hasMessage("Broken pipe");
+    }
+}
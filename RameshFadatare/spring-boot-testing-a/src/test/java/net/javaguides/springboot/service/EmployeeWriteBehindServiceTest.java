@@ -0,0 +1,210 @@
+package net.javaguides.springboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguides.springboot.config.EmployeeMetrics;
+import net.javaguides.springboot.dto.BulkCreateResult;
+import net.javaguides.springboot.dto.EmployeeWriteStatus;
+import net.javaguides.springboot.exception.WriteQueueFullException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.EmployeeWriteBehindServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class EmployeeWriteBehindServiceTest {
+
+    private EmployeeService employeeService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmployeeWriteBehindServiceImpl writeBehindService;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        employeeService = mock(EmployeeService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        writeBehindService = new EmployeeWriteBehindServiceImpl();
+        ReflectionTestUtils.setField(writeBehindService, "employeeService", employeeService);
+        ReflectionTestUtils.setField(writeBehindService, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(writeBehindService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(writeBehindService, "retryBackoff", Duration.ofMillis(1));
+        employee = Employee.builder()
+                .firstName("Bheem")
+                .lastName("Shekhar")
+                .email("bheem@gmail.com")
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writeBehindService.isRunning()) {
+            writeBehindService.stop();
+        }
+    }
+
+    //Junit Test for write-behind create
+    @Test
+    public void givenEmployeeObject_whenSubmitCreate_thenCommittedInBatch(){
+        //given - precondition or setup
+        given(employeeService.saveEmployees(anyList()))
+                .willReturn(List.of(BulkCreateResult.created(0, 1L, "bheem@gmail.com")));
+        writeBehindService.start();
+
+        //when  - action or behaviour that we are going to test
+        EmployeeWriteStatus queued = writeBehindService.submitCreate(employee);
+
+        //then - verify output
+        assertThat(queued.state()).isEqualTo(EmployeeWriteStatus.State.QUEUED);
+        EmployeeWriteStatus committed = awaitFinalStatus(queued.trackingId());
+        assertThat(committed.state()).isEqualTo(EmployeeWriteStatus.State.COMMITTED);
+        assertThat(committed.employeeId()).isEqualTo(1L);
+        assertThat(meterRegistry.get(EmployeeMetrics.WRITE_FLUSH).tag("outcome", "committed").timer().count()).isEqualTo(1);
+    }
+
+    //Junit Test for coalescing queued updates of the same employee
+    @Test
+    public void givenQueuedUpdate_whenSubmitUpdateForSameEmployee_thenOnlyLastUpdateIsWritten(){
+        //given - precondition or setup
+        ReflectionTestUtils.setField(writeBehindService, "linger", Duration.ofMillis(500));
+        Employee lastUpdate = Employee.builder().firstName("Ram").lastName("Shekhar").email("ram@gmail.com").build();
+        given(employeeService.updateEmployee(eq(1L), any(Employee.class))).willReturn(Optional.of(lastUpdate));
+        writeBehindService.start();
+
+        //when  - action or behaviour that we are going to test
+        EmployeeWriteStatus first = writeBehindService.submitUpdate(1L, employee);
+        EmployeeWriteStatus second = writeBehindService.submitUpdate(1L, lastUpdate);
+
+        //then - verify output
+        assertThat(awaitFinalStatus(first.trackingId()).state()).isEqualTo(EmployeeWriteStatus.State.COMMITTED);
+        assertThat(awaitFinalStatus(second.trackingId()).state()).isEqualTo(EmployeeWriteStatus.State.COMMITTED);
+        verify(employeeService, times(1)).updateEmployee(eq(1L), any(Employee.class));
+        assertThat(meterRegistry.counter(EmployeeMetrics.WRITES, "outcome", "coalesced").count()).isEqualTo(1);
+    }
+
+    //Junit Test for retry after a transient failure
+    @Test
+    public void givenTransientFailure_whenFlush_thenRetryBatch(){
+        //given - precondition or setup
+        given(employeeService.saveEmployees(anyList()))
+                .willThrow(new TransientDataAccessResourceException("connection reset"))
+                .willReturn(List.of(BulkCreateResult.created(0, 1L, "bheem@gmail.com")));
+        writeBehindService.start();
+
+        //when  - action or behaviour that we are going to test
+        EmployeeWriteStatus queued = writeBehindService.submitCreate(employee);
+
+        //then - verify output
+        assertThat(awaitFinalStatus(queued.trackingId()).state()).isEqualTo(EmployeeWriteStatus.State.COMMITTED);
+        verify(employeeService, times(2)).saveEmployees(anyList());
+    }
+
+    //Junit Test for retry after a transient failure - the batch is written again in submission order
+    @Test
+    public void givenTransientFailureOfBatch_whenFlush_thenRetryInSubmissionOrder(){
+        //given - precondition or setup
+        ReflectionTestUtils.setField(writeBehindService, "linger", Duration.ofMillis(500));
+        given(employeeService.saveEmployees(anyList()))
+                .willThrow(new TransientDataAccessResourceException("connection reset"))
+                .willReturn(List.of(BulkCreateResult.created(0, 1L, "bheem@gmail.com"),
+                        BulkCreateResult.created(1, 2L, "ramesh@gmail.com")));
+        writeBehindService.start();
+
+        //when  - action or behaviour that we are going to test
+        EmployeeWriteStatus first = writeBehindService.submitCreate(employee);
+        EmployeeWriteStatus second = writeBehindService.submitCreate(Employee.builder()
+                .firstName("Ramesh")
+                .lastName("Fadatare")
+                .email("ramesh@gmail.com")
+                .build());
+
+        //then - verify output
+        assertThat(awaitFinalStatus(first.trackingId()).state()).isEqualTo(EmployeeWriteStatus.State.COMMITTED);
+        assertThat(awaitFinalStatus(second.trackingId()).state()).isEqualTo(EmployeeWriteStatus.State.COMMITTED);
+        ArgumentCaptor<List<Employee>> batches = ArgumentCaptor.captor();
+        verify(employeeService, times(2)).saveEmployees(batches.capture());
+        assertThat(batches.getAllValues()).allSatisfy(batch -> assertThat(batch).extracting(Employee::getEmail)
+                .containsExactly("bheem@gmail.com", "ramesh@gmail.com"));
+    }
+
+    //Junit Test for a failing write inside a batch
+    @Test
+    public void givenConflictingUpdate_whenFlush_thenOnlyThatWriteFails(){
+        //given - precondition or setup
+        ReflectionTestUtils.setField(writeBehindService, "linger", Duration.ofMillis(500));
+        given(employeeService.saveEmployees(anyList()))
+                .willReturn(List.of(BulkCreateResult.created(0, 1L, "bheem@gmail.com")));
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willReturn(Employee.builder().id(1L).build());
+        given(employeeService.updateEmployee(eq(2L), any(Employee.class)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, 2L));
+        writeBehindService.start();
+
+        //when  - action or behaviour that we are going to test
+        EmployeeWriteStatus create = writeBehindService.submitCreate(employee);
+        EmployeeWriteStatus update = writeBehindService.submitUpdate(2L, employee);
+
+        //then - verify output
+        assertThat(awaitFinalStatus(create.trackingId()).state()).isEqualTo(EmployeeWriteStatus.State.COMMITTED);
+        EmployeeWriteStatus failed = awaitFinalStatus(update.trackingId());
+        assertThat(failed.state()).isEqualTo(EmployeeWriteStatus.State.FAILED);
+        assertThat(failed.message()).contains("modified concurrently");
+        verify(employeeService, times(2)).updateEmployee(eq(2L), any(Employee.class));
+    }
+
+    //Junit Test for back-pressure on a full queue
+    @Test
+    public void givenFullQueue_whenSubmitCreate_thenThrowException() throws InterruptedException {
+        //given - precondition or setup
+        ReflectionTestUtils.setField(writeBehindService, "capacity", 1);
+        ReflectionTestUtils.setField(writeBehindService, "batchSize", 1);
+        ReflectionTestUtils.setField(writeBehindService, "offerTimeout", Duration.ofMillis(10));
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return List.of(BulkCreateResult.created(0, 1L, "bheem@gmail.com"));
+        });
+        writeBehindService.start();
+        writeBehindService.submitCreate(employee);
+        flushing.await();
+        writeBehindService.submitCreate(employee);
+
+        //when  - action or behaviour that we are going to test
+        assertThrows(WriteQueueFullException.class, () -> writeBehindService.submitCreate(employee));
+
+        //then - verify output
+        release.countDown();
+        assertThat(meterRegistry.counter(EmployeeMetrics.WRITES, "outcome", "rejected").count()).isEqualTo(1);
+        assertThat(meterRegistry.get(EmployeeMetrics.WRITE_QUEUE_DEPTH).gauge().value()).isLessThanOrEqualTo(1);
+    }
+
+    private EmployeeWriteStatus awaitFinalStatus(String trackingId) {
+        return await().atMost(Duration.ofSeconds(5))
+                .until(() -> writeBehindService.getStatus(trackingId).orElseThrow(),
+                        status -> status.state() != EmployeeWriteStatus.State.QUEUED);
+    }
+}
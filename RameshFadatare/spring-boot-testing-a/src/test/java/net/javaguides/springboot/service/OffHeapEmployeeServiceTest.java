@@ -0,0 +1,246 @@
+package net.javaguides.springboot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguides.springboot.config.EmployeeMetrics;
+import net.javaguides.springboot.dto.BulkCreateResult;
+import net.javaguides.springboot.dto.EmployeeSummary;
+import net.javaguides.springboot.event.EmployeeChangeEvent;
+import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.OffHeapEmployeeServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class OffHeapEmployeeServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private ObjectMapper objectMapper;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OffHeapEmployeeServiceImpl employeeService;
+
+    @BeforeEach
+    void setUp() {
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        objectMapper = new ObjectMapper();
+        meterRegistry = new SimpleMeterRegistry();
+        employeeService = start(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        employeeService.stop();
+    }
+
+    //Junit test for save and get by id
+    @Test
+    public void givenSavedEmployee_whenGetEmployeeById_thenReturnEmployee() {
+        //given - precondition or setup
+        Employee savedEmployee = employeeService.saveEmployee(employee("Ramesh", "Fadatare", "ramesh@gmail.com"));
+        employeeService.saveEmployee(employee("Ramesh", "Kumar", "kumar@gmail.com"));
+
+        //when  - action or behaviour that we are going to test
+        Employee byId = employeeService.getEmployeeById(savedEmployee.getId()).orElseThrow();
+
+        //then - verify output
+        assertThat(savedEmployee.getVersion()).isZero();
+        assertThat(byId).usingRecursiveComparison().isEqualTo(savedEmployee);
+        assertThat(employeeService.getEmployeeById(999L)).isEmpty();
+        verify(eventPublisher, times(2)).publishEvent(any(EmployeeChangeEvent.class));
+    }
+
+    //Junit test for the unique email index
+    @Test
+    public void givenTakenEmail_whenSaveEmployee_thenThrowsException() {
+        //given - precondition or setup
+        employeeService.saveEmployee(employee("Ramesh", "Fadatare", "ramesh@gmail.com"));
+
+        //when  - action or behaviour that we are going to test
+        assertThrows(ResourceNotFoundException.class,
+                () -> employeeService.saveEmployee(employee("Tony", "Stark", "ramesh@gmail.com")));
+        List<BulkCreateResult> results = employeeService.saveEmployees(List.of(
+                employee("Tony", "Stark", "tony@gmail.com"),
+                employee("Tony", "Stark", "tony@gmail.com"),
+                employee("Bruce", null, "bruce@gmail.com")));
+
+        //then - verify output
+        assertThat(results).extracting(BulkCreateResult::status).containsExactly(
+                BulkCreateResult.Status.CREATED, BulkCreateResult.Status.DUPLICATE, BulkCreateResult.Status.INVALID);
+        assertThat(employeeService.getAllEmployees()).hasSize(2);
+    }
+
+    //Junit test for update with version check and index maintenance
+    @Test
+    public void givenEmployee_whenUpdateEmployee_thenIndexesFollow() {
+        //given - precondition or setup
+        Employee savedEmployee = employeeService.saveEmployee(employee("Ramesh", "Fadatare", "ramesh@gmail.com"));
+        employeeService.saveEmployee(employee("Tony", "Stark", "tony@gmail.com"));
+
+        //when  - action or behaviour that we are going to test
+        Employee updatedEmployee = employeeService.updateEmployee(savedEmployee.getId(),
+                Employee.builder().firstName("Ram").lastName("Jadhav").email("ram@gmail.com").version(0L).build()).orElseThrow();
+
+        //then - verify output
+        assertThat(updatedEmployee.getVersion()).isEqualTo(1L);
+        assertThat(employeeService.getEmployeeById(savedEmployee.getId())).get().extracting(Employee::getEmail).isEqualTo("ram@gmail.com");
+        //the old email is free again, the new one is taken
+        assertThat(employeeService.saveEmployee(employee("Ramesh", "Fadatare", "ramesh@gmail.com")).getId()).isNotEqualTo(savedEmployee.getId());
+        assertThrows(ResourceNotFoundException.class, () -> employeeService.saveEmployee(employee("Raj", "Jadhav", "ram@gmail.com")));
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> employeeService.updateEmployee(savedEmployee.getId(),
+                Employee.builder().firstName("Ram").lastName("Jadhav").email("ram@gmail.com").version(0L).build()));
+        assertThrows(DataIntegrityViolationException.class, () -> employeeService.updateEmployee(savedEmployee.getId(),
+                employee("Ram", "Jadhav", "tony@gmail.com")));
+        assertThat(employeeService.updateEmployee(999L, employee("Ram", "Jadhav", "ram@gmail.com"))).isEmpty();
+    }
+
+    //Junit test for deletes and the keyset pages over what is left
+    @Test
+    public void givenDeletedEmployees_whenGetEmployeesAfter_thenSkipThem() {
+        //given - precondition or setup
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(employeeService.saveEmployee(employee("First" + i, "Last" + i, i + "@gmail.com")).getId());
+        }
+
+        //when  - action or behaviour that we are going to test
+        boolean deleted = employeeService.deleteEmployee(ids.get(1));
+        int deletedRows = employeeService.deleteEmployees(List.of(ids.get(2), ids.get(2), ids.get(5), 999L));
+
+        //then - verify output
+        assertThat(deleted).isTrue();
+        assertThat(deletedRows).isEqualTo(2);
+        assertThat(employeeService.deleteEmployee(ids.get(1))).isFalse();
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> employeeService.deleteEmployee(ids.get(0), 7L));
+        assertThat(employeeService.getEmployeesAfter(ids.get(0), 3)).extracting(Employee::getId)
+                .containsExactly(ids.get(3), ids.get(4), ids.get(6));
+        assertThat(employeeService.getEmployeeSummariesAfter(ids.get(6), 10)).extracting(EmployeeSummary::id)
+                .containsExactly(ids.get(7), ids.get(8), ids.get(9));
+        assertThat(employeeService.getEmployeeFieldsAfter(Set.of("email"), ids.get(8), 10)).singleElement()
+                .isEqualTo(Map.of("id", ids.get(9), "email", "9@gmail.com"));
+        assertThat(employeeService.getEmployeesByIds(List.of(ids.get(9), ids.get(1), ids.get(0)))).extracting(Employee::getId)
+                .containsExactly(ids.get(9), ids.get(0));
+    }
+
+    //Junit test for a store that outgrows its arena and indexes several times
+    @Test
+    public void givenManyWrites_whenStoreGrows_thenEveryEmployeeIsFound() {
+        //given - precondition or setup
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            ids.add(employeeService.saveEmployee(employee("First" + i, "Last", i + "@gmail.com")).getId());
+        }
+
+        //when  - action or behaviour that we are going to test
+        for (int i = 0; i < ids.size(); i++) {
+            if (i % 2 == 0) {
+                employeeService.deleteEmployee(ids.get(i));
+            } else {
+                employeeService.updateEmployee(ids.get(i), employee("First" + i, "Updated", i + "@yahoo.com"));
+            }
+        }
+
+        //then - verify output
+        List<Employee> employees = employeeService.getAllEmployees();
+        assertThat(employees).hasSize(2500);
+        assertThat(employees).allSatisfy(employee -> {
+            assertThat(employee.getLastName()).isEqualTo("Updated");
+            assertThat(employee.getVersion()).isEqualTo(1L);
+        });
+        assertThrows(ResourceNotFoundException.class, () -> employeeService.saveEmployee(employee("First", "Last", "4999@yahoo.com")));
+        employeeService.saveEmployee(employee("First", "Last", "4999@gmail.com"));
+        employeeService.saveEmployee(employee("First", "Last", "4998@gmail.com"));
+        double usedBytes = meterRegistry.get(EmployeeMetrics.OFFHEAP_BYTES).tag("kind", "used").gauge().value();
+        double allocatedBytes = meterRegistry.get(EmployeeMetrics.OFFHEAP_BYTES).tag("kind", "allocated").gauge().value();
+        assertThat(usedBytes).isPositive().isLessThan(allocatedBytes);
+    }
+
+    //Junit test for the snapshot written on stop and loaded on start
+    @Test
+    public void givenSnapshotFile_whenRestarted_thenEmployeesAreLoaded() throws Exception {
+        //given - precondition or setup
+        Path snapshot = directory.resolve("employees.snapshot");
+        OffHeapEmployeeServiceImpl persistentService = start(snapshot);
+        Employee ramesh = persistentService.saveEmployee(employee("Ramesh", "Fadatare", "ramesh@gmail.com"));
+        Employee tony = persistentService.saveEmployee(employee("Tony", "Stark", "tony@gmail.com"));
+        persistentService.updateEmployee(tony.getId(), employee("Tony", "Stark", "ironman@gmail.com"));
+        persistentService.stop();
+
+        //when  - action or behaviour that we are going to test
+        OffHeapEmployeeServiceImpl restartedService = start(snapshot);
+
+        //then - verify output
+        assertThat(Files.exists(snapshot)).isTrue();
+        assertThat(restartedService.getAllEmployees()).extracting(Employee::getEmail)
+                .containsExactly("ramesh@gmail.com", "ironman@gmail.com");
+        assertThat(restartedService.getEmployeeById(tony.getId())).get().extracting(Employee::getVersion).isEqualTo(1L);
+        assertThat(restartedService.saveEmployee(employee("Bruce", "Wayne", "bruce@gmail.com")).getId())
+                .isGreaterThan(tony.getId());
+        assertThrows(ResourceNotFoundException.class,
+                () -> restartedService.saveEmployee(employee("Ram", "Jadhav", ramesh.getEmail())));
+        restartedService.stop();
+    }
+
+    //Junit test for the JSON array export
+    @Test
+    public void givenEmployees_whenWriteJsonArray_thenSameAsSerializedList() throws Exception {
+        //given - precondition or setup
+        for (int i = 0; i < 2500; i++) {
+            employeeService.saveEmployee(employee("First" + i, "Last" + i, i + "@gmail.com"));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when  - action or behaviour that we are going to test
+        long rows = employeeService.writeJsonArray(out);
+
+        //then - verify output
+        assertThat(rows).isEqualTo(2500);
+        assertThat(out.toString()).isEqualTo(objectMapper.writeValueAsString(employeeService.getAllEmployees()));
+    }
+
+    private OffHeapEmployeeServiceImpl start(Path snapshot) {
+        OffHeapEmployeeServiceImpl service = new OffHeapEmployeeServiceImpl();
+        ReflectionTestUtils.setField(service, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        //small enough that the arena and the indexes have to grow
+        ReflectionTestUtils.setField(service, "initialSize", DataSize.ofKilobytes(1));
+        ReflectionTestUtils.setField(service, "expectedEmployees", 16);
+        if (snapshot != null) {
+            ReflectionTestUtils.setField(service, "snapshotFile", snapshot.toString());
+        }
+        service.start();
+        return service;
+    }
+
+    private static Employee employee(String firstName, String lastName, String email) {
+        return Employee.builder().firstName(firstName).lastName(lastName).email(email).build();
+    }
+}
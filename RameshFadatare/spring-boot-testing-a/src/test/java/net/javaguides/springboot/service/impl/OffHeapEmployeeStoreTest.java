@@ -0,0 +1,70 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapEmployeeStoreTest {
+
+    //Junit test for the email and first + last name indexes
+    @Test
+    public void givenSavedEmployees_whenFindByIndexes_thenReturnEmployee() {
+        //given - precondition or setup
+        OffHeapEmployeeStore store = new OffHeapEmployeeStore(1024, 16);
+        Employee savedEmployee = store.insert("Ramesh", "Fadatare", "ramesh@gmail.com");
+        store.insert("Ramesh", "Kumar", "kumar@gmail.com");
+
+        //when  - action or behaviour that we are going to test
+        Employee byEmail = store.findByEmail("ramesh@gmail.com");
+        List<Employee> byName = store.findByName("Ramesh", "Fadatare");
+
+        //then - verify output
+        assertThat(byEmail).usingRecursiveComparison().isEqualTo(savedEmployee);
+        assertThat(byName).extracting(Employee::getId).containsExactly(savedEmployee.getId());
+        assertThat(store.findByEmail("tony@gmail.com")).isNull();
+        assertThat(store.findByName("Ramesh", "Stark")).isEmpty();
+    }
+
+    //Junit test for index maintenance on update and delete
+    @Test
+    public void givenUpdatedAndDeletedEmployees_whenFindByIndexes_thenOnlyCurrentValuesMatch() {
+        //given - precondition or setup
+        OffHeapEmployeeStore store = new OffHeapEmployeeStore(1024, 16);
+        Employee ramesh = store.insert("Ramesh", "Fadatare", "ramesh@gmail.com");
+        Employee tony = store.insert("Tony", "Stark", "tony@gmail.com");
+
+        //when  - action or behaviour that we are going to test
+        store.update(ramesh.getId(), "Ram", "Jadhav", "ram@gmail.com", 0L);
+        store.delete(tony.getId(), null);
+
+        //then - verify output
+        assertThat(store.findByEmail("ramesh@gmail.com")).isNull();
+        assertThat(store.findByEmail("ram@gmail.com")).extracting(Employee::getId).isEqualTo(ramesh.getId());
+        assertThat(store.findByName("Ramesh", "Fadatare")).isEmpty();
+        assertThat(store.findByName("Ram", "Jadhav")).hasSize(1);
+        assertThat(store.findByEmail("tony@gmail.com")).isNull();
+        assertThat(store.findByName("Tony", "Stark")).isEmpty();
+    }
+
+    //Junit test for an update that relocates a full arena while the old, larger record is still indexed
+    @Test
+    public void givenArenaFilledByOneRecord_whenUpdateToSmallerRecord_thenArenaGrowsForBoth() {
+        //given - precondition or setup
+        String email = "big@gmail.com";
+        //record header (16) + three length prefixes (6) + the strings fill the arena exactly
+        String firstName = "x".repeat(1000 - 16 - 6 - 1 - email.length());
+        OffHeapEmployeeStore store = new OffHeapEmployeeStore(1000, 16);
+        Employee savedEmployee = store.insert(firstName, "y", email);
+
+        //when  - action or behaviour that we are going to test
+        Employee updatedEmployee = store.update(savedEmployee.getId(), "x", "y", email, 0L);
+
+        //then - verify output
+        assertThat(updatedEmployee.getFirstName()).isEqualTo("x");
+        assertThat(store.get(savedEmployee.getId())).usingRecursiveComparison().isEqualTo(updatedEmployee);
+        assertThat(store.findByEmail(email)).extracting(Employee::getVersion).isEqualTo(1L);
+    }
+}